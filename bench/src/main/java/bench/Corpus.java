@@ -0,0 +1,82 @@
+package bench;
+import java.util.Random;
+
+// Deterministic synthetic CustomLang sources for benchmarking. Each mix skews the token
+// distribution towards one scanner path; the same seed always yields the same text.
+public final class Corpus {
+    public enum Mix { IDENTIFIERS, NUMBERS, COMMENTS, ERRORS, MIXED }
+
+    private static final String[] PUNCTUATORS = { "(", ")", "{", "}", "[", "]", ",", ";", ":" };
+    private static final String[] OPERATORS = { "+", "-", "*", "/", "%" };
+    private static final String[] BAD = { "@", "$", "count", "1.2.3", "7.", "Thisidentifieriswaytoolongtobevalid1" };
+
+    private Corpus() { }
+
+    public static String generate(Mix mix, int targetBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(targetBytes + 128);
+        while (out.length() < targetBytes) {
+            appendLine(out, mix, random);
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void appendLine(StringBuilder out, Mix mix, Random random) {
+        if (mix == Mix.COMMENTS || (mix == Mix.MIXED && random.nextInt(8) == 0)) {
+            out.append("    ## ");
+            for (int i = 0, n = 4 + random.nextInt(12); i < n; i++) out.append("lorem ipsum ");
+            if (mix == Mix.COMMENTS && random.nextBoolean()) return;
+            out.append('\n');
+        }
+        for (int i = 0, n = 4 + random.nextInt(10); i < n; i++) {
+            if (i > 0) out.append(' ');
+            out.append(word(mix, random));
+        }
+        out.append(" ;");
+    }
+
+    private static String word(Mix mix, Random random) {
+        int roll = random.nextInt(100);
+        switch (mix) {
+            case IDENTIFIERS:
+                return roll < 80 ? identifier(random) : operatorOrPunctuator(random);
+            case NUMBERS:
+                return roll < 80 ? number(random) : operatorOrPunctuator(random);
+            case ERRORS:
+                return roll < 40 ? BAD[random.nextInt(BAD.length)] : anyToken(random);
+            default:
+                return anyToken(random);
+        }
+    }
+
+    private static String anyToken(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 35) return identifier(random);
+        if (roll < 55) return number(random);
+        if (roll < 60) return random.nextBoolean() ? "true" : "false";
+        return operatorOrPunctuator(random);
+    }
+
+    private static String identifier(Random random) {
+        StringBuilder id = new StringBuilder();
+        id.append((char) ('A' + random.nextInt(26)));
+        for (int i = 0, n = random.nextInt(12); i < n; i++) {
+            id.append(random.nextInt(4) == 0 ? (char) ('0' + random.nextInt(10)) : (char) ('a' + random.nextInt(26)));
+        }
+        return id.toString();
+    }
+
+    private static String number(Random random) {
+        switch (random.nextInt(4)) {
+            case 0: return Integer.toString(random.nextInt(100000));
+            case 1: return "-" + random.nextInt(1000);
+            case 2: return random.nextInt(1000) + "." + (1 + random.nextInt(99999));
+            default: return random.nextInt(10) + "." + random.nextInt(10) + "e-" + random.nextInt(20);
+        }
+    }
+
+    private static String operatorOrPunctuator(Random random) {
+        return random.nextBoolean() ? OPERATORS[random.nextInt(OPERATORS.length)] : PUNCTUATORS[random.nextInt(PUNCTUATORS.length)];
+    }
+}
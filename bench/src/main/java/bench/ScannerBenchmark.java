@@ -0,0 +1,136 @@
+package bench;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.Lexer;
+import src.Lexers;
+import src.ManualScanner;
+import src.TableScanner;
+import src.Token;
+import src.TokenBuffer;
+import src.TokenSink;
+import src.Yylex;
+
+// Compares the hand-written DFA (ManualScanner), the table-driven DFA (TableScanner) and the
+// JFlex scanner (Yylex); "lexer" runs each engine through the common Lexer interface.
+// Scores are scans/s; the "bytes" and "tokens" counters give bytes/s and tokens/s.
+// Add "-prof gc" for allocation rate and "-bm sample -tu us" for latency percentiles.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ScannerBenchmark {
+    @Param({ "IDENTIFIERS", "NUMBERS", "COMMENTS", "ERRORS", "MIXED" })
+    public Corpus.Mix mix;
+
+    @Param({ "16384", "1048576", "16777216" })
+    public int size;
+
+    private String source;
+    private ByteBuffer bytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long bytes;
+        public long tokens;
+    }
+
+    // Engine choice for the benchmarks that go through the Lexer interface
+    @State(Scope.Benchmark)
+    public static class Engine {
+        @Param({ "MANUAL", "TABLE", "JFLEX" })
+        public Lexers.Engine engine;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Corpus.generate(mix, size, 42L);
+        bytes = ByteBuffer.allocateDirect(source.length());
+        bytes.put(source.getBytes(StandardCharsets.US_ASCII)).flip();
+    }
+
+    @Benchmark
+    public int manualTokenList(Throughput counters) {
+        List<Token> tokens = ManualScanner.fromSource(source).scanTokens();
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int manualBuffer(Throughput counters) {
+        TokenBuffer tokens = ManualScanner.fromSource(source).scanToBuffer();
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int manualBytes(Throughput counters) {
+        TokenBuffer tokens = ManualScanner.fromBytes(bytes.duplicate()).scanToBuffer();
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int manualNoSink(Throughput counters) {
+        ManualScanner scanner = ManualScanner.fromSource(source);
+        scanner.scan(TokenSink.NONE);
+        return record(counters, scanner.getStatistics().getTotalTokens());
+    }
+
+    @Benchmark
+    public int tableBuffer(Throughput counters) {
+        TokenBuffer tokens = TableScanner.fromSource(source).scanToBuffer();
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int jflexYylex(Throughput counters) throws IOException {
+        Yylex scanner = new Yylex(new StringReader(source));
+        int count = 0;
+        while (scanner.yylex() != null) count++;
+        return record(counters, count);
+    }
+
+    @Benchmark
+    public int jflexBuffer(Throughput counters) throws IOException {
+        TokenBuffer tokens = new Yylex(new StringReader(source)).scanInto(new TokenBuffer(source));
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int jflexInMemory(Throughput counters) throws IOException {
+        TokenBuffer tokens = Yylex.over(source).scanInto(new TokenBuffer(source));
+        return record(counters, tokens.size());
+    }
+
+    @Benchmark
+    public int lexer(Engine state, Throughput counters) {
+        Lexer lexer = Lexers.fromSource(state.engine, source);
+        lexer.scan(TokenSink.NONE);
+        return record(counters, lexer.getStatistics().getTotalTokens());
+    }
+
+    private int record(Throughput counters, int tokens) {
+        counters.bytes += source.length();
+        counters.tokens += tokens;
+        return tokens;
+    }
+}
@@ -0,0 +1,91 @@
+package src;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Read-only CharSequence view over ASCII bytes (e.g. a MappedByteBuffer).
+// CustomLang's alphabet is pure ASCII, so each byte maps straight to a char with no decode step.
+// Other bytes are not rejected: byte b reads as char b & 0xFF, i.e. the bytes are taken as Latin-1.
+public class AsciiCharSequence implements CharSequence {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer bytes;
+    private final ByteBuffer words; // same bytes, little-endian, so byte i of a word is index i
+    private final int offset;
+    private final int length;
+
+    public AsciiCharSequence(ByteBuffer bytes) {
+        this(bytes, bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN), bytes.position(), bytes.remaining());
+    }
+
+    private AsciiCharSequence(ByteBuffer bytes, ByteBuffer words, int offset, int length) {
+        this.bytes = bytes;
+        this.words = words;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() { return length; }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        return new AsciiCharSequence(bytes, words, offset + start, end - start);
+    }
+
+    // Word-at-a-time searches for ManualScanner, eight bytes per step. Both return an index
+    // relative to this sequence, or to when [from, to) has no match.
+
+    // First \n or \r: where a ## comment ends.
+    int indexOfLineEnd(int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = words.getLong(offset + i);
+            long found = zeroBytes(word ^ (ONES * '\n')) | zeroBytes(word ^ (ONES * '\r'));
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            byte b = bytes.get(offset + i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return to;
+    }
+
+    // First byte that is neither a space nor a tab: the end of a run of indentation.
+    int skipBlanks(int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = words.getLong(offset + i);
+            long other = ~(zeroBytes(word ^ (ONES * ' ')) | zeroBytes(word ^ (ONES * '\t'))) & HIGH_BITS;
+            if (other != 0) return i + (Long.numberOfTrailingZeros(other) >>> 3);
+        }
+        for (; i < to; i++) {
+            byte b = bytes.get(offset + i);
+            if (b != ' ' && b != '\t') return i;
+        }
+        return to;
+    }
+
+    // 0x80 in each byte of word that is zero, 0x00 in the others. Exact for every byte (no
+    // borrow runs from one byte into the next), so any set bit, not just the lowest, is a match.
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,283 @@
+package src;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Scans many files concurrently, one task per file, and aggregates their statistics, errors and
+// symbol tables. At most maxInFlightBytes of input are being scanned at once: submitting blocks
+// until enough earlier files have finished. Results are merged in input order, so the output
+// does not depend on scheduling.
+public class BatchScanner {
+    public static final int DEFAULT_MAX_IN_FLIGHT_BYTES = 64 << 20;
+    public static final long DEFAULT_CACHE_BYTES = 256L << 20;
+
+    // Outcome of one file; failure is set (and the rest empty) if it could not be read.
+    // Built before the file's bytes stop counting as in flight, and keeps none of its text.
+    public static class FileResult {
+        private final Path path;
+        private final long size;
+        private final ScanStatistics statistics;
+        private final ErrorHandler errorHandler;
+        private final SymbolTable symbolTable;
+        private final IOException failure;
+
+        FileResult(Path path, long size, Lexer lexer) {
+            this.path = path;
+            this.size = size;
+            this.statistics = lexer.getStatistics();
+            this.errorHandler = lexer.getErrorHandler();
+            this.symbolTable = lexer.getSymbolTable();
+            errorHandler.detachSource();
+            this.failure = null;
+        }
+
+        FileResult(Path path, long size, TokenCache.Entry entry) {
+            this.path = path;
+            this.size = size;
+            this.statistics = entry.getStatistics();
+            this.errorHandler = entry.getErrorHandler();
+            this.symbolTable = entry.getSymbolTable();
+            errorHandler.detachSource();
+            this.failure = null;
+        }
+
+        FileResult(Path path, long size, IOException failure) {
+            this.path = path;
+            this.size = size;
+            this.statistics = new ScanStatistics();
+            this.errorHandler = new ErrorHandler();
+            this.symbolTable = new SymbolTable();
+            this.failure = failure;
+        }
+
+        public Path getPath() { return path; }
+        public long getSize() { return size; }
+        public ScanStatistics getStatistics() { return statistics; }
+        public ErrorHandler getErrorHandler() { return errorHandler; }
+        public SymbolTable getSymbolTable() { return symbolTable; }
+        public IOException getFailure() { return failure; }
+
+        @Override
+        public String toString() {
+            if (failure != null) return path + ": FAILED " + failure.getMessage();
+            return String.format("%s: %d tokens, %d lines, %d comments, %d errors, %d symbols",
+                    path, statistics.getTotalTokens(), statistics.getLines(), statistics.getCommentsRemoved(),
+                    errorHandler.getErrorCount(), symbolTable.size());
+        }
+    }
+
+    private final Lexers.Engine engine;
+    private final ExecutorService executor;
+    private final int maxInFlightBytes;
+    private TokenCache cache;
+
+    private final List<FileResult> files = new ArrayList<>();
+    private final ScanStatistics statistics = new ScanStatistics();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private int errorCount = 0;
+    private int lines = 0;
+
+    // The executor decides the threading: a fixed pool here, or on Java 21+
+    // Executors.newVirtualThreadPerTaskExecutor() for one virtual thread per file.
+    public BatchScanner(Lexers.Engine engine, ExecutorService executor, int maxInFlightBytes) {
+        if (maxInFlightBytes <= 0) throw new IllegalArgumentException("maxInFlightBytes must be positive: " + maxInFlightBytes);
+        this.engine = engine;
+        this.executor = executor;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    // Unchanged files are then loaded from the cache instead of rescanned; the cache keeps
+    // each engine's results apart.
+    public BatchScanner withCache(TokenCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    // Single use: scans every file matched by the inputs (files, directories, or globs such as
+    // "src/**/*.lang", which includes src/*.lang); directories contribute their *.lang files,
+    // recursively.
+    public BatchScanner scan(List<String> inputs) throws IOException, InterruptedException {
+        List<Path> paths = new ArrayList<>();
+        for (String input : inputs) paths.addAll(expand(input));
+
+        Semaphore inFlight = new Semaphore(maxInFlightBytes);
+        List<Future<FileResult>> results = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            long size = Files.size(path);
+            // a file larger than the limit still runs, just on its own
+            int permits = (int) Math.min(size, maxInFlightBytes);
+            inFlight.acquire(permits);
+            try {
+                results.add(executor.submit(() -> {
+                    try {
+                        return scanFile(path, size);
+                    } finally {
+                        inFlight.release(permits);
+                    }
+                }));
+            } catch (RuntimeException e) {
+                inFlight.release(permits);
+                throw e;
+            }
+        }
+
+        for (Future<FileResult> result : results) {
+            try {
+                add(result.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Scanning failed", e.getCause());
+            }
+        }
+        statistics.setLines(lines);
+        return this;
+    }
+
+    private FileResult scanFile(Path path, long size) {
+        if (cache != null) {
+            try {
+                return new FileResult(path, size, cache.get(path, engine));
+            } catch (IOException e) {
+                return new FileResult(path, size, e);
+            }
+        }
+        try (Lexer lexer = Lexers.fromPath(engine, path)) {
+            lexer.scan(TokenSink.NONE);
+            return new FileResult(path, size, lexer);
+        } catch (IOException e) {
+            return new FileResult(path, size, e);
+        } catch (UncheckedIOException e) {
+            return new FileResult(path, size, e.getCause());
+        }
+    }
+
+    private void add(FileResult file) {
+        files.add(file);
+        statistics.merge(file.statistics);
+        lines += file.statistics.getLines();
+        errorCount += file.errorHandler.getErrorCount();
+        // first lines refer to the first file (in input order) that uses the name
+        symbolTable.merge(file.symbolTable, 0);
+    }
+
+    static List<Path> expand(String input) throws IOException {
+        Path path = Paths.get(input);
+        if (Files.isRegularFile(path)) return Collections.singletonList(path);
+        if (Files.isDirectory(path)) return walk(path, FileSystems.getDefault().getPathMatcher("glob:**.lang"));
+
+        // glob: walk from the longest directory prefix without wildcards
+        int wildcard = indexOfWildcard(input);
+        if (wildcard < 0) throw new IOException("No such file or directory: " + input);
+        int slash = Math.max(input.lastIndexOf('/', wildcard), input.lastIndexOf('\\', wildcard));
+        Path base = slash < 0 ? Paths.get(".") : Paths.get(input.substring(0, slash + 1));
+        String pattern = slash < 0 ? input : input.substring(slash + 1);
+        return walk(base, globMatcher(pattern), base);
+    }
+
+    // Like "glob:" + pattern, except that a "**/" segment also matches no directory at all, as in
+    // shells: "samples/**/*.lang" takes samples/a.lang too. Java's glob wants at least one
+    // directory there, so the pattern is tried with each such segment kept and left out.
+    static PathMatcher globMatcher(String pattern) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String variant : directoryWildcardVariants(pattern)) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + variant));
+        }
+        return path -> {
+            for (PathMatcher matcher : matchers) {
+                if (matcher.matches(path)) return true;
+            }
+            return false;
+        };
+    }
+
+    private static List<String> directoryWildcardVariants(String pattern) {
+        int at = pattern.indexOf("**/");
+        while (at > 0 && pattern.charAt(at - 1) != '/') at = pattern.indexOf("**/", at + 1);
+        if (at < 0) return Collections.singletonList(pattern);
+        List<String> variants = new ArrayList<>();
+        for (String rest : directoryWildcardVariants(pattern.substring(at + 3))) {
+            variants.add(pattern.substring(0, at + 3) + rest);
+            variants.add(pattern.substring(0, at) + rest);
+        }
+        return variants;
+    }
+
+    private static List<Path> walk(Path root, PathMatcher matcher) throws IOException {
+        return walk(root, matcher, root);
+    }
+
+    // Regular files under root whose path relative to base matches, in a stable order.
+    private static List<Path> walk(Path root, PathMatcher matcher, Path base) throws IOException {
+        if (!Files.isDirectory(root)) return Collections.emptyList();
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(base.relativize(p)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOfWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) != -1) return i;
+        }
+        return -1;
+    }
+
+    public List<FileResult> getFiles() { return Collections.unmodifiableList(files); }
+    public ScanStatistics getStatistics() { return statistics; }
+    public SymbolTable getSymbolTable() { return symbolTable; }
+    public int getErrorCount() { return errorCount; }
+
+    // Usage: BatchScanner [-engine=manual|table|jflex] [-threads=n] [-max-bytes=n] [-cache=dir]
+    //                    (file|dir|glob)...
+    public static void main(String[] args) {
+        Lexers.Engine engine = Lexers.Engine.MANUAL;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+        String cacheDirectory = null;
+        List<String> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("-engine=")) engine = Lexers.Engine.parse(arg.substring(8));
+            else if (arg.startsWith("-threads=")) threads = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("-max-bytes=")) maxBytes = Integer.parseInt(arg.substring(11));
+            else if (arg.startsWith("-cache=")) cacheDirectory = arg.substring(7);
+            else inputs.add(arg);
+        }
+        if (inputs.isEmpty()) inputs.add("tests");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            BatchScanner batch = new BatchScanner(engine, executor, maxBytes);
+            TokenCache cache = cacheDirectory == null ? null : new TokenCache(Paths.get(cacheDirectory), DEFAULT_CACHE_BYTES);
+            batch.withCache(cache).scan(inputs);
+            for (FileResult file : batch.getFiles()) {
+                System.out.println(file);
+            }
+            ScanReport report = new ScanReport(batch.getStatistics(), batch.getSymbolTable(), new ErrorHandler());
+            report.printStatistics(System.out);
+            System.out.println("Files: " + batch.getFiles().size() + ", Errors: " + batch.getErrorCount());
+            if (cache != null) System.out.println("Cache hits: " + cache.getHits() + ", misses: " + cache.getMisses());
+            report.printSymbolTable(System.out);
+        } catch (IOException e) {
+            System.err.println("File error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package src;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Writes one fixed-layout record per token: type (byte), offset, line, column, length (ints),
+// followed by the lexeme as ASCII bytes.
+public class BinaryTokenSink implements TokenSink {
+    private final DataOutputStream out;
+
+    public BinaryTokenSink(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 65536));
+    }
+
+    @Override
+    public void token(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart) {
+        try {
+            out.writeByte(type.ordinal());
+            out.writeInt(offset);
+            out.writeInt(line);
+            out.writeInt(column);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                out.write(text.charAt(textStart + i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package src;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads one stream written by CompactTokenSink, straight from a ByteBuffer (e.g. a mapped file).
+// Nothing is copied: lexemes and identifier names are views into the buffer.
+// Usage: next() to advance, then the getters; or writeTo(sink) to replay the rest.
+public class CompactTokenReader {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final ByteBuffer buffer;
+    private final CharSequence text; // the whole buffer as chars, indexed by absolute position
+    private int position;
+    private boolean ended = false;
+
+    private TokenType type;
+    private int offset;
+    private int line = 1;
+    private int column = 1;
+    private int length;
+    private int textStart;
+    private int symbolId = -1;
+
+    // string table: where each identifier name is in the buffer
+    private int[] symbolStarts = new int[64];
+    private int[] symbolLengths = new int[64];
+    private int symbolCount = 0;
+
+    // Starts at the buffer's position, which must be the start of a stream.
+    public CompactTokenReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        ByteBuffer whole = buffer.duplicate();
+        whole.position(0);
+        this.text = new AsciiCharSequence(whole);
+        this.position = buffer.position();
+        for (byte b : CompactTokenSink.MAGIC) {
+            if (position >= buffer.limit() || buffer.get(position++) != b) {
+                throw new IllegalArgumentException("Not a compact token stream");
+            }
+        }
+        if (position >= buffer.limit()) throw new IllegalArgumentException("Not a compact token stream");
+        int version = buffer.get(position++);
+        if (version != CompactTokenSink.VERSION) {
+            throw new IllegalArgumentException("Unsupported token stream version " + version);
+        }
+    }
+
+    public static CompactTokenReader mapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return new CompactTokenReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Advances to the next token; false at the end of the stream.
+    public boolean next() {
+        if (ended) return false;
+        if (position >= buffer.limit()) throw truncated(position);
+        int tag = buffer.get(position++) & 0xFF;
+        int ordinal = tag & CompactTokenSink.TYPE_MASK;
+        if (ordinal == TokenType.EOF.ordinal()) {
+            ended = true;
+            return false;
+        }
+        if (ordinal >= TYPES.length) throw new IllegalStateException("Corrupt token stream at " + (position - 1));
+        type = TYPES[ordinal];
+
+        int offsetDelta = unzigzag(varint());
+        offset += offsetDelta;
+        if ((tag & CompactTokenSink.NEW_LINE) != 0) {
+            line += unzigzag(varint());
+            column = varint();
+        } else {
+            column += offsetDelta + unzigzag(varint());
+        }
+
+        if (type == TokenType.IDENTIFIER) {
+            symbolId = varint();
+            if (symbolId == symbolCount) {
+                if (symbolCount == symbolStarts.length) {
+                    symbolStarts = Arrays.copyOf(symbolStarts, symbolCount * 2);
+                    symbolLengths = Arrays.copyOf(symbolLengths, symbolCount * 2);
+                }
+                symbolLengths[symbolCount] = varint();
+                symbolStarts[symbolCount] = position;
+                skip(symbolLengths[symbolCount]);
+                symbolCount++;
+            } else if (symbolId > symbolCount) {
+                throw new IllegalStateException("Undefined symbol " + symbolId + " at " + position);
+            }
+            textStart = symbolStarts[symbolId];
+            length = symbolLengths[symbolId];
+        } else {
+            symbolId = -1;
+            length = varint();
+            textStart = position;
+            skip(length);
+        }
+        return true;
+    }
+
+    // Replays the rest of the stream into a sink; lexemes are passed as views into the buffer.
+    public <S extends TokenSink> S writeTo(S sink) {
+        while (next()) {
+            if (symbolId >= 0) {
+                sink.identifier(offset, length, line, column, text, textStart, symbolId);
+            } else {
+                sink.token(type, offset, length, line, column, text, textStart);
+            }
+        }
+        sink.flush();
+        return sink;
+    }
+
+    public TokenType getType() { return type; }
+    public int getOffset() { return offset; }
+    public int getLength() { return length; }
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+    public int getSymbolId() { return symbolId; }
+    public CharSequence getLexeme() { return text.subSequence(textStart, textStart + length); }
+
+    public int getSymbolCount() { return symbolCount; }
+    public CharSequence getSymbolName(int id) {
+        if (id < 0 || id >= symbolCount) throw new IndexOutOfBoundsException("symbol " + id + ", count " + symbolCount);
+        return text.subSequence(symbolStarts[id], symbolStarts[id] + symbolLengths[id]);
+    }
+
+    // Buffer position after the end record once next() has returned false: where a following
+    // stream (if any) begins.
+    public int position() { return position; }
+
+    // A damaged or cut-off stream is reported as IllegalStateException with the offset where
+    // the bad value starts, never as an index error from the buffer.
+    private int varint() {
+        int start = position;
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position >= buffer.limit()) throw truncated(start);
+            int b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("Corrupt token stream at " + start + ": varint longer than 5 bytes");
+    }
+
+    // Steps over a lexeme or name of length bytes.
+    private void skip(int length) {
+        if (length < 0 || length > buffer.limit() - position) throw truncated(position);
+        position += length;
+    }
+
+    private static IllegalStateException truncated(int at) {
+        return new IllegalStateException("Token stream is truncated at " + at);
+    }
+
+    private static int unzigzag(int n) { return (n >>> 1) ^ -(n & 1); }
+
+    // Usage: CompactTokenReader [file]   (prints every stream in the file as text; default stdin)
+    public static void main(String[] args) {
+        try {
+            ByteBuffer input = args.length > 0
+                    ? mapped(args[0]).buffer
+                    : ByteBuffer.wrap(System.in.readAllBytes());
+            TextTokenSink out = new TextTokenSink(System.out);
+            while (input.hasRemaining()) {
+                CompactTokenReader reader = new CompactTokenReader(input);
+                reader.writeTo(out);
+                input.position(reader.position());
+            }
+        } catch (IOException e) {
+            System.err.println("File error: " + e.getMessage());
+        }
+    }
+}
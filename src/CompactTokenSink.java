@@ -0,0 +1,137 @@
+package src;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+// Streams tokens in the compact binary format read by CompactTokenReader:
+//
+//   header   'C' 'L' 'T' 'S', version byte
+//   token    tag byte: TokenType ordinal, | NEW_LINE when the line changed
+//            zigzag varint: offset - previous offset
+//            NEW_LINE ? varint line delta, varint column
+//                     : zigzag varint column - predicted (same line: column advances with offset)
+//            IDENTIFIER ? varint symbol id, and the first time an id appears: varint length, name
+//                       : varint length, lexeme
+//   end      EOF tag, written by flush()
+//
+// Lexemes are ASCII (every CustomLang token is), one byte per char. Symbol ids are dense in
+// first-appearance order, so the identifier names form a string table spread over the stream.
+// After flush() the next token starts a new stream, so several files can share one pipe.
+public class CompactTokenSink implements TokenSink {
+    static final byte[] MAGIC = { 'C', 'L', 'T', 'S' };
+    static final int VERSION = 1;
+    static final int TYPE_MASK = 0x0F;
+    static final int NEW_LINE = 0x10;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[65536];
+    private int count = 0;
+
+    private boolean started = false;
+    private int previousOffset;
+    private int previousLine;
+    private int previousColumn;
+    private int[] streamIds = new int[64]; // scanner symbol id -> stream id, or -1
+    private int symbolCount;
+
+    public CompactTokenSink(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void token(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart) {
+        writePosition(type, offset, line, column);
+        writeText(text, textStart, length);
+    }
+
+    @Override
+    public void identifier(int offset, int length, int line, int column, CharSequence text, int textStart, int symbolId) {
+        writePosition(TokenType.IDENTIFIER, offset, line, column);
+        if (symbolId >= streamIds.length) {
+            int old = streamIds.length;
+            streamIds = Arrays.copyOf(streamIds, Math.max(symbolId + 1, old * 2));
+            Arrays.fill(streamIds, old, streamIds.length, -1);
+        }
+        int id = streamIds[symbolId];
+        if (id >= 0) {
+            putVarint(id);
+        } else {
+            id = symbolCount++;
+            streamIds[symbolId] = id;
+            putVarint(id);
+            writeText(text, textStart, length);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!started) start();
+        put(TokenType.EOF.ordinal());
+        started = false;
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void start() {
+        for (byte b : MAGIC) put(b);
+        put(VERSION);
+        started = true;
+        previousOffset = 0;
+        previousLine = 1;
+        previousColumn = 1;
+        Arrays.fill(streamIds, -1);
+        symbolCount = 0;
+    }
+
+    private void writePosition(TokenType type, int offset, int line, int column) {
+        if (!started) start();
+        int offsetDelta = offset - previousOffset;
+        if (line != previousLine) {
+            put(type.ordinal() | NEW_LINE);
+            putVarint(zigzag(offsetDelta));
+            putVarint(zigzag(line - previousLine));
+            putVarint(column);
+        } else {
+            put(type.ordinal());
+            putVarint(zigzag(offsetDelta));
+            putVarint(zigzag(column - (previousColumn + offsetDelta)));
+        }
+        previousOffset = offset;
+        previousLine = line;
+        previousColumn = column;
+    }
+
+    private void writeText(CharSequence text, int start, int length) {
+        putVarint(length);
+        for (int i = 0; i < length; i++) put(text.charAt(start + i));
+    }
+
+    static int zigzag(int n) { return (n << 1) ^ (n >> 31); }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            put((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        put(value);
+    }
+
+    private void put(int b) {
+        if (count == buffer.length) drain();
+        buffer[count++] = (byte) b;
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, count);
+            count = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package src;
+
+// Every lexical error the scanners report. The type and reason are the report's wording.
+public enum ErrorCode {
+    INVALID_CHAR("Invalid Char", "Character not in alphabet"),
+    LOWERCASE_IDENTIFIER("Invalid ID", "Identifiers must start with Uppercase"),
+    // the lexeme is the identifier's first 10 characters
+    IDENTIFIER_TOO_LONG("Invalid ID", "Identifier exceeds 31 characters") {
+        @Override
+        String lexeme(CharSequence text) { return text + "..."; }
+    },
+    MISSING_FRACTION_DIGITS("Malformed Literal", "Float must have digits after decimal"),
+    MULTIPLE_DECIMAL_POINTS("Malformed Literal", "Float cannot have multiple decimal points"),
+    INTEGER_OUT_OF_RANGE("Malformed Literal", "Integer exceeds 64-bit range");
+
+    private final String type;
+    private final String reason;
+
+    ErrorCode(String type, String reason) {
+        this.type = type;
+        this.reason = reason;
+    }
+
+    public String getType() { return type; }
+    public String getReason() { return reason; }
+
+    // The lexeme shown in reports, from the source text the error points at.
+    String lexeme(CharSequence text) { return text.toString(); }
+}
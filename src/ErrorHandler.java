@@ -1,47 +1,178 @@
 package src;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+// Collects the scanners' errors. Records are small and their lexemes are only turned into
+// strings when asked for. setLimit bounds how many are kept: once it is reached, limitReached()
+// tells the scanners to stop. A listener sees every error as it is reported; with
+// setRetainErrors(false) nothing is kept at all.
 public class ErrorHandler {
-    private static class ErrorRecord {
-        String type;
+    public static class ErrorRecord {
+        final ErrorCode code;
         int line;
         int column;
-        String lexeme;
-        String reason;
+        // the lexeme as a slice of the source, until getLexeme() turns it into a string
+        private CharSequence source;
+        private final int start;
+        private final int length;
+        private String lexeme;
 
-        ErrorRecord(String type, int line, int column, String lexeme, String reason) {
-            this.type = type;
+        ErrorRecord(ErrorCode code, int line, int column, CharSequence source, int start, int length) {
+            this.code = code;
             this.line = line;
             this.column = column;
+            this.source = source;
+            this.start = start;
+            this.length = length;
+        }
+
+        ErrorRecord(ErrorCode code, int line, int column, String lexeme) {
+            this(code, line, column, null, 0, 0);
             this.lexeme = lexeme;
-            this.reason = reason;
+        }
+
+        private ErrorRecord(ErrorRecord other, int line) {
+            this(other.code, line, other.column, other.source, other.start, other.length);
+            this.lexeme = other.lexeme;
+        }
+
+        public ErrorCode getCode() { return code; }
+        public String getType() { return code.getType(); }
+        public int getLine() { return line; }
+        public int getColumn() { return column; }
+        public String getReason() { return code.getReason(); }
+
+        public String getLexeme() {
+            if (lexeme == null) {
+                lexeme = code.lexeme(source.subSequence(start, start + length));
+                source = null;
+            }
+            return lexeme;
         }
 
         @Override
         public String toString() {
             // Format: Error type, line, column, lexeme, reason
             return String.format("ERROR: [%-15s] Line: %-3d Col: %-3d Lexeme: \"%-10s\" -> %s",
-                    type, line, column, lexeme, reason);
+                    getType(), line, column, getLexeme(), getReason());
         }
     }
 
     private List<ErrorRecord> errors = new ArrayList<>();
+    private int limit = Integer.MAX_VALUE;
+    private int count = 0;
+    private int suppressed = 0;
+    private boolean retain = true;
+    private ErrorListener listener;
 
-    public void addError(String type, int line, int column, String lexeme, String reason) {
-        errors.add(new ErrorRecord(type, line, column, lexeme, reason));
+    // At most maxErrors are kept (and passed to the listener); later ones are only counted.
+    public void setLimit(int maxErrors) {
+        if (maxErrors <= 0) throw new IllegalArgumentException("maxErrors must be positive: " + maxErrors);
+        this.limit = maxErrors;
     }
 
-    public boolean hasErrors() {
-        return !errors.isEmpty();
+    public void setListener(ErrorListener listener) { this.listener = listener; }
+    public void setRetainErrors(boolean retain) { this.retain = retain; }
+
+    // The lexeme is source[start, start + length); nothing is copied until it is needed.
+    public void addError(ErrorCode code, int line, int column, CharSequence source, int start, int length) {
+        if (count >= limit) {
+            suppressed++;
+            return;
+        }
+        add(new ErrorRecord(code, line, column, source, start, length));
+    }
+
+    // For lexemes that are already strings (or whose source won't stay valid).
+    public void addError(ErrorCode code, int line, int column, String lexeme) {
+        if (count >= limit) {
+            suppressed++;
+            return;
+        }
+        add(new ErrorRecord(code, line, column, lexeme));
+    }
+
+    private void add(ErrorRecord error) {
+        count++;
+        if (retain) errors.add(error);
+        if (listener != null) listener.error(error);
+    }
+
+    // Drops the errors (the list keeps its capacity) but not the settings: limit, listener and
+    // retention stay as they were. For a scanner reset onto new input.
+    void clear() {
+        errors.clear();
+        count = 0;
+        suppressed = 0;
+    }
+
+    // True once the limit is reached; scanners then stop early.
+    public boolean limitReached() { return count >= limit; }
+    // Errors reported so far, including the ones not kept because of the limit.
+    public int getErrorCount() { return count + suppressed; }
+    public int getSuppressedCount() { return suppressed; }
+
+    // Appends another handler's errors in order, shifting their line numbers by lineOffset.
+    public void merge(ErrorHandler other, int lineOffset) {
+        for (ErrorRecord e : other.errors) {
+            if (count >= limit) suppressed++;
+            else add(new ErrorRecord(e, e.line + lineOffset));
+        }
+        suppressed += other.suppressed;
+    }
+
+    // Replaces the errors positioned in [(fromLine, fromCol), (toLine, toCol)) with replacement's,
+    // and shifts the lines of the errors after that range by lineDelta. toLine < 0 means "to the end".
+    void replaceRange(int fromLine, int fromCol, int toLine, int toCol, ErrorHandler replacement, int lineDelta) {
+        int first = 0;
+        while (first < errors.size() && before(errors.get(first), fromLine, fromCol)) first++;
+        int last = first;
+        if (toLine < 0) {
+            last = errors.size();
+        } else {
+            while (last < errors.size() && before(errors.get(last), toLine, toCol)) last++;
+        }
+        for (int i = last; i < errors.size(); i++) {
+            ErrorRecord e = errors.get(i);
+            e.line += lineDelta;
+        }
+        // the edit replaces the text these lexemes were sliced from
+        detachSource();
+        count += replacement.errors.size() - (last - first);
+        errors.subList(first, last).clear();
+        errors.addAll(first, replacement.errors);
+    }
+
+    // Turns every kept lexeme into a string, so the errors no longer hold on to the scanned text.
+    void detachSource() {
+        for (ErrorRecord e : errors) e.getLexeme();
     }
 
-    public void printErrors() {
-        if (errors.isEmpty()) return;
-        System.out.println("\n=== ERROR REPORT ===");
+    boolean hasErrorAt(int line, int column) {
         for (ErrorRecord e : errors) {
-            System.out.println(e);
+            if (e.line == line && e.column == column) return true;
         }
-        System.out.println("====================\n");
+        return false;
+    }
+
+    // Drops the trailing errors positioned at or after (line, column).
+    void truncateFrom(int line, int column) {
+        int last = errors.size();
+        while (last > 0 && !before(errors.get(last - 1), line, column)) last--;
+        count -= errors.size() - last;
+        errors.subList(last, errors.size()).clear();
+    }
+
+    private static boolean before(ErrorRecord e, int line, int column) {
+        return e.line < line || (e.line == line && e.column < column);
+    }
+
+    public boolean hasErrors() {
+        return count + suppressed > 0;
+    }
+
+    public List<ErrorRecord> getErrors() {
+        return Collections.unmodifiableList(errors);
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package src;
+
+// Receives each error as soon as it is reported, e.g. to print or forward errors while a long
+// scan is still running. Register it with ErrorHandler.setListener.
+@FunctionalInterface
+public interface ErrorListener {
+    void error(ErrorHandler.ErrorRecord error);
+}
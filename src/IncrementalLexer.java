@@ -0,0 +1,164 @@
+package src;
+
+// Keeps the tokens, symbol table and errors of an edited document up to date.
+// CustomLang tokens never span lines and the scanner only looks forward, so after an edit it is
+// enough to relex from the start of the affected line until a new token lines up with an old one
+// (same type, length and column at the shifted offset); everything after that is reused.
+public class IncrementalLexer {
+    private String text;
+    private final TokenBuffer tokens;
+    private final SymbolTable symbolTable;
+    private final ErrorHandler errorHandler;
+
+    public IncrementalLexer(String text) {
+        ManualScanner scanner = ManualScanner.fromSource(text);
+        this.text = text;
+        this.tokens = scanner.scanToBuffer();
+        this.symbolTable = scanner.getSymbolTable();
+        this.errorHandler = scanner.getErrorHandler();
+    }
+
+    // Token index range touched by an edit: tokens [firstToken, firstToken + removedTokens) were
+    // replaced by [firstToken, firstToken + insertedTokens); later tokens were only shifted.
+    public static class Change {
+        private final int firstToken;
+        private final int removedTokens;
+        private final int insertedTokens;
+
+        Change(int firstToken, int removedTokens, int insertedTokens) {
+            this.firstToken = firstToken;
+            this.removedTokens = removedTokens;
+            this.insertedTokens = insertedTokens;
+        }
+
+        public int getFirstToken() { return firstToken; }
+        public int getRemovedTokens() { return removedTokens; }
+        public int getInsertedTokens() { return insertedTokens; }
+    }
+
+    public Change edit(int offset, int removedLength, String inserted) {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IndexOutOfBoundsException("edit [" + offset + ", " + (offset + removedLength) + ") outside text of length " + text.length());
+        }
+        String oldText = text;
+        String newText = oldText.substring(0, offset) + inserted + oldText.substring(offset + removedLength);
+        int offsetDelta = inserted.length() - removedLength;
+        int oldEditEnd = offset + removedLength;
+        int newEditEnd = offset + inserted.length();
+
+        // 1. Restart at the start of the line holding the character before the edit; that part
+        //    of the text is identical before and after the edit.
+        int restart = Math.max(0, offset - 1);
+        while (!isLineStart(oldText, restart)) restart--;
+        int first = tokens.indexAtOrAfter(restart);
+        int restartLine = first > 0
+                ? tokens.getLine(first - 1) + countLineBreaks(oldText, tokens.getStart(first - 1), restart)
+                : 1 + countLineBreaks(oldText, 0, restart);
+
+        // 2. Relex until a token past the edit matches an old token shifted by offsetDelta.
+        ManualScanner scanner = new ManualScanner(newText, restart, newText.length(), restartLine);
+        TokenBuffer window = new TokenBuffer(newText, 64);
+        int oldSize = tokens.size();
+        int candidate = tokens.indexAtOrAfter(oldEditEnd);
+        int resync = oldSize;
+        int lineDelta = 0;
+        TokenType type;
+        while ((type = scanner.nextType()) != TokenType.EOF) {
+            int start = scanner.tokenStart();
+            if (start >= newEditEnd) {
+                while (candidate < oldSize && tokens.getStart(candidate) + offsetDelta < start) candidate++;
+                if (candidate < oldSize
+                        && tokens.getStart(candidate) + offsetDelta == start
+                        && tokens.getType(candidate) == type
+                        && tokens.getLength(candidate) == scanner.tokenLength()
+                        && tokens.getColumn(candidate) == scanner.tokenColumn()
+                        // a malformed-literal error is reported at the column where the next
+                        // token starts; resync elsewhere rather than guess which scan owns it
+                        && !errorHandler.hasErrorAt(tokens.getLine(candidate), tokens.getColumn(candidate))
+                        && !scanner.getErrorHandler().hasErrorAt(scanner.tokenLine(), scanner.tokenColumn())) {
+                    resync = candidate;
+                    lineDelta = scanner.tokenLine() - tokens.getLine(candidate);
+                    // the matching token (and any error raised while scanning it, like the ".3"
+                    // of "1.2.3") is kept from the old state, so don't count it twice
+                    if (type == TokenType.IDENTIFIER) scanner.getSymbolTable().removeOccurrence(scanner.tokenSymbol());
+                    scanner.getErrorHandler().truncateFrom(scanner.tokenLine(), scanner.tokenColumn());
+                    break;
+                }
+            }
+            window.add(type, start, scanner.tokenLength(), scanner.tokenLine(), scanner.tokenColumn(), scanner.tokenSymbol(), scanner.tokenValue());
+        }
+
+        // 3. Errors: swap the ones in the relexed region, shift the ones after it.
+        if (resync < oldSize) {
+            errorHandler.replaceRange(restartLine, 1, tokens.getLine(resync), tokens.getColumn(resync),
+                                      scanner.getErrorHandler(), lineDelta);
+        } else {
+            errorHandler.replaceRange(restartLine, 1, -1, 0, scanner.getErrorHandler(), 0);
+        }
+
+        // 4. Symbols: drop the replaced occurrences, add the new ones, then repair first lines.
+        boolean[] touched = new boolean[symbolTable.size() + scanner.getSymbolTable().size()];
+        for (int i = first; i < resync; i++) {
+            int id = tokens.getSymbolId(i);
+            if (id >= 0) {
+                symbolTable.removeOccurrence(id);
+                touched[id] = true;
+            }
+        }
+        int previousCount = symbolTable.size();
+        int[] oldFirstLines = new int[previousCount];
+        for (int id = 0; id < previousCount; id++) oldFirstLines[id] = symbolTable.getFirstLine(id);
+        SymbolTable added = scanner.getSymbolTable();
+        int[] symbolMap = symbolTable.merge(added, 0);
+        for (int id : symbolMap) touched[id] = true;
+
+        tokens.splice(first, resync, window, symbolMap, offsetDelta, lineDelta, newText);
+        int windowEnd = first + window.size();
+        for (int id = 0; id < previousCount; id++) {
+            int oldFirst = oldFirstLines[id];
+            if (oldFirst < restartLine) continue; // first occurrence is before the edit
+            if (!touched[id]) {
+                symbolTable.setFirstLine(id, oldFirst + lineDelta); // first occurrence is after the edit
+            } else if (symbolTable.getFrequency(id) > 0) {
+                symbolTable.setFirstLine(id, firstLineOf(id, added, symbolMap, windowEnd));
+            }
+        }
+
+        text = newText;
+        return new Change(first, resync - first, window.size());
+    }
+
+    // Earliest line of id at or after the restart point: in the relexed window if it occurs
+    // there, otherwise its first occurrence among the shifted tokens that follow.
+    private int firstLineOf(int id, SymbolTable added, int[] symbolMap, int windowEnd) {
+        for (int i = 0; i < symbolMap.length; i++) {
+            if (symbolMap[i] == id && added.getFrequency(i) > 0) return added.getFirstLine(i);
+        }
+        for (int i = windowEnd; i < tokens.size(); i++) {
+            if (tokens.getSymbolId(i) == id) return tokens.getLine(i);
+        }
+        return symbolTable.getFirstLine(id);
+    }
+
+    private static boolean isLineStart(CharSequence text, int pos) {
+        if (pos == 0) return true;
+        char previous = text.charAt(pos - 1);
+        if (previous == '\n') return true;
+        return previous == '\r' && (pos >= text.length() || text.charAt(pos) != '\n');
+    }
+
+    // Line breaks in [from, to), counting \r\n once.
+    private static int countLineBreaks(CharSequence text, int from, int to) {
+        int breaks = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 >= text.length() || text.charAt(i + 1) != '\n'))) breaks++;
+        }
+        return breaks;
+    }
+
+    public String getText() { return text; }
+    public TokenBuffer getTokens() { return tokens; }
+    public SymbolTable getSymbolTable() { return symbolTable; }
+    public ErrorHandler getErrorHandler() { return errorHandler; }
+}
@@ -1,25 +1,36 @@
 package src;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
+// Usage: JFlexTest [-buffer=n] [manual|table|jflex] [file]   (runs any engine through the Lexer interface)
+//   -buffer streams the file through a Reader and a scan buffer of n chars instead of scanning it
+//   in memory (jflex only)
 public class JFlexTest {
     public static void main(String[] args) {
+        Lexers.Engine engine = Lexers.Engine.JFLEX;
         String file = "tests/test1.lang";
-        
-        System.out.println("=== Testing JFlex Scanner ===");
-        
-        try {
-            Yylex scanner = new Yylex(new FileReader(file));
-            Token token;
-            
-            while ((token = scanner.yylex()) != null && token.getType() != TokenType.EOF) {
-                System.out.println(token);
-            }
-            
+        int bufferSize = -1;
+        int positional = 0;
+        for (String arg : args) {
+            if (arg.startsWith("-buffer=")) bufferSize = Integer.parseInt(arg.substring(8));
+            else if (positional++ == 0) engine = Lexers.Engine.parse(arg);
+            else file = arg;
+        }
+
+        System.out.println("=== Testing " + engine + " Scanner ===");
+
+        try (Lexer scanner = bufferSize > 0
+                ? Lexers.fromReader(engine, new InputStreamReader(Files.newInputStream(Paths.get(file))), bufferSize)
+                : Lexers.fromPath(engine, Paths.get(file))) {
+            scanner.scan(new TextTokenSink(System.out));
+            ScanReport.of(scanner).print(System.out);
+
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
         } catch (Error e) {
              System.err.println("Lexical Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package src;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// What every scanner engine offers; create one through Lexers. Invalid input never becomes a
+// token here: it is recorded in getErrorHandler() and scanning carries on.
+public interface Lexer extends Iterable<Token>, Closeable {
+    // Pull-based: the next valid token, or an EOF token once the input is exhausted.
+    Token nextToken();
+
+    // Push-based: reports every remaining token to the sink, then flushes it.
+    <S extends TokenSink> S scan(S sink);
+
+    ScanStatistics getStatistics();
+    SymbolTable getSymbolTable();
+    ErrorHandler getErrorHandler();
+
+    // Releases the input (readers, streams); in-memory engines have nothing to release.
+    @Override
+    default void close() { }
+
+    default List<Token> scanTokens() {
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        while ((token = nextToken()).getType() != TokenType.EOF) {
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    // Single pass: iterating consumes the lexer, so stopping early skips the rest of the input.
+    @Override
+    default Iterator<Token> iterator() {
+        return new Iterator<Token>() {
+            private Token pending;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null) pending = nextToken();
+                return pending.getType() != TokenType.EOF;
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Token token = pending;
+                pending = null;
+                return token;
+            }
+        };
+    }
+
+    @Override
+    default Spliterator<Token> spliterator() {
+        return new Spliterators.AbstractSpliterator<Token>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Token> action) {
+                Token token = nextToken();
+                if (token.getType() == TokenType.EOF) return false;
+                action.accept(token);
+                return true;
+            }
+        };
+    }
+
+    default Stream<Token> tokens() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
@@ -0,0 +1,78 @@
+package src;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Creates a Lexer for any engine from any kind of input, so callers (and the benchmarks)
+// can choose the engine at runtime.
+public final class Lexers {
+    public enum Engine {
+        MANUAL,  // ManualScanner: hand-written scanner
+        TABLE,   // TableScanner: table-driven DFA, same output as MANUAL
+        JFLEX;   // Yylex: generated from Scanner.flex; reads through a Reader
+
+        // Accepts "manual", "table" or "jflex" in any case.
+        public static Engine parse(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    private Lexers() { }
+
+    public static Lexer fromSource(Engine engine, CharSequence source) {
+        switch (engine) {
+            case MANUAL: return ManualScanner.fromSource(source);
+            case TABLE: return TableScanner.fromSource(source);
+            default: return Yylex.over(source);
+        }
+    }
+
+    // Bytes are read as Latin-1, one char per byte, never decoded (see ManualScanner.fromBytes);
+    // the manual engines scan them in place.
+    public static Lexer fromBytes(Engine engine, ByteBuffer bytes) {
+        switch (engine) {
+            case MANUAL: return ManualScanner.fromBytes(bytes);
+            case TABLE: return TableScanner.fromBytes(bytes);
+            default: return fromSource(engine, new AsciiCharSequence(bytes));
+        }
+    }
+
+    // The in-memory engines read the whole reader up front and close it.
+    public static Lexer fromReader(Engine engine, Reader reader) throws IOException {
+        return fromReader(engine, reader, Yylex.DEFAULT_BUFFER_SIZE);
+    }
+
+    // JFLEX streams through a scan buffer of bufferSize chars; the other engines ignore it.
+    public static Lexer fromReader(Engine engine, Reader reader, int bufferSize) throws IOException {
+        if (engine == Engine.JFLEX) return yylex(reader, bufferSize);
+        try (Reader in = reader) {
+            StringBuilder text = new StringBuilder();
+            char[] chunk = new char[8192];
+            int n;
+            while ((n = in.read(chunk)) != -1) text.append(chunk, 0, n);
+            return fromSource(engine, text);
+        }
+    }
+
+    // Decoded with the platform charset, like ManualScanner(String filePath).
+    public static Lexer fromStream(Engine engine, InputStream in) throws IOException {
+        if (engine == Engine.JFLEX) return yylex(new InputStreamReader(in), Yylex.DEFAULT_BUFFER_SIZE);
+        try (InputStream stream = in) {
+            return fromSource(engine, new String(stream.readAllBytes()));
+        }
+    }
+
+    // Refills are only counted while ScanMetrics is enabled.
+    private static Yylex yylex(Reader reader, int bufferSize) {
+        return ScanMetrics.enabled() ? Yylex.counting(reader, bufferSize) : new Yylex(reader, bufferSize);
+    }
+
+    // Read whole; every engine then scans it in memory (JFLEX without refills).
+    public static Lexer fromPath(Engine engine, Path path) throws IOException {
+        return fromSource(engine, new String(Files.readAllBytes(path)));
+    }
+}
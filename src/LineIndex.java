@@ -0,0 +1,68 @@
+package src;
+import java.util.Arrays;
+
+// Offsets where lines start, recorded by ManualScanner as it passes each line break, so a
+// TokenBuffer can work out a token's line and column from its offset when asked instead of
+// storing two ints per token. The scanner itself still has each position at hand (see
+// ManualScanner.tokenCol). One int per line; lookups are a binary search.
+public class LineIndex {
+    private int firstLine;
+    private int firstStart;
+    private int[] starts = new int[64]; // start of line firstLine + 1 + i
+    private int size = 0;
+    private int lastAnswer = 0; // linesBefore's previous result, checked before searching
+
+    // firstStart is the offset where line firstLine begins.
+    public LineIndex(int firstLine, int firstStart) {
+        this.firstLine = firstLine;
+        this.firstStart = firstStart;
+    }
+
+    // A new line begins at offset (just past its line break); offsets only ever increase.
+    void add(int offset) {
+        if (size == starts.length) starts = Arrays.copyOf(starts, size * 2);
+        starts[size++] = offset;
+    }
+
+    // Empties the index for another scan, keeping its array.
+    void reset(int firstLine, int firstStart) {
+        this.firstLine = firstLine;
+        this.firstStart = firstStart;
+        size = 0;
+    }
+
+    public int lineOf(int offset) {
+        return firstLine + linesBefore(offset);
+    }
+
+    public int columnOf(int offset) {
+        int k = linesBefore(offset);
+        return offset - (k == 0 ? firstStart : starts[k - 1]) + 1;
+    }
+
+    // Offset where the given line starts.
+    public int startOf(int line) {
+        int k = line - firstLine;
+        if (k < 0 || k > size) throw new IndexOutOfBoundsException("line " + line + ", lines " + firstLine + ".." + getLastLine());
+        return k == 0 ? firstStart : starts[k - 1];
+    }
+
+    public int getFirstLine() { return firstLine; }
+    public int getLastLine() { return firstLine + size; }
+
+    // Number of recorded line starts at or before offset. Tokens are mostly looked up in order,
+    // so the previous answer is tried first.
+    private int linesBefore(int offset) {
+        int k = lastAnswer;
+        if (k <= size && (k == 0 || starts[k - 1] <= offset) && (k == size || offset < starts[k])) return k;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= offset) low = mid + 1;
+            else high = mid;
+        }
+        lastAnswer = low;
+        return low;
+    }
+}
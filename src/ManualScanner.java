@@ -1,38 +1,210 @@
 package src;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
-
-public class ManualScanner {
-    private String source;
-    private int current = 0;
-    private int line = 1;
-    private int col = 1;
-    private int start = 0;
-    
-    // Statistics
-    private int totalTokens = 0;
-    private int commentsRemoved = 0;
-    private int[] tokenCounts = new int[TokenType.values().length];
+import java.nio.file.StandardOpenOption;
+
+public class ManualScanner implements Lexer {
+    // Bump whenever the tokens, errors or symbols produced for some input change; cached scans
+    // (TokenCache) from other versions are then discarded.
+    public static final int VERSION = 1;
 
-    private SymbolTable symbolTable;
-    private ErrorHandler errorHandler; 
+    private CharSequence source;
+    // The source again when it is a byte view or a String; comments and indentation are then
+    // skipped in bulk instead of one peek()/advance() per character.
+    private AsciiCharSequence bytes;
+    private String text;
+    private int nextLineFeed;
+    private int nextReturn;
+    private int current;
+    private int end;
+    private int line;
+    private int lineStart; // offset of the current line's first char; columns are counted from it
+    private int start;
+    // Every token's position is still known as it is scanned, because TokenSink, Token and the
+    // error records take a line and column; it costs one subtraction from lineStart per token.
+    private int tokenLine;
+    private int tokenCol;
+    private int tokenSymbol;
+    private long tokenValue;
+    private final NumberDecoder number = new NumberDecoder();
+    private int origin;
+    private long startNanos; // set when the first token is asked for, as in every engine
+    private boolean started;
+    private boolean finished;
+    private ByteBuffer fileBuffer; // reset(Path) reads into this, and reuses it for the next file
+    
+    private final ScanStatistics statistics = new ScanStatistics();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final ErrorHandler errorHandler = new ErrorHandler();
+    private LineIndex lineIndex = new LineIndex(1, 0);
+    private boolean lineIndexShared; // a buffer or caller holds lineIndex, so reset must not clear it
 
     public ManualScanner(String filePath) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(filePath));
-        this.source = new String(bytes).replace("\r\n", "\n").replace("\r", "\n");
-        this.symbolTable = new SymbolTable();
-        this.errorHandler = new ErrorHandler();
+        this((CharSequence) new String(Files.readAllBytes(Paths.get(filePath))));
     }
 
-    public List<Token> scanTokens() {
-        List<Token> tokens = new ArrayList<>();
-        
-        while (!isAtEnd()) {
+    // A scanner without input yet; give it some with reset().
+    public ManualScanner() {
+        this((CharSequence) "");
+    }
+
+    // Line endings (\n, \r\n, \r) are handled while scanning, so the source is never rewritten.
+    private ManualScanner(CharSequence source) {
+        this(source, 0, source.length());
+    }
+
+    // Scans only [from, to) of the source; line numbers restart at 1. Offsets stay absolute.
+    ManualScanner(CharSequence source, int from, int to) {
+        this(source, from, to, 1);
+    }
+
+    // from must be the start of line firstLine.
+    ManualScanner(CharSequence source, int from, int to, int firstLine) {
+        reset(source, from, to, firstLine);
+    }
+
+    // Starts over on new input, keeping the symbol table's, error list's and token counters'
+    // storage, so batches and servers don't rebuild them per file. The previous input's
+    // statistics, symbols and errors are cleared (copy what is still needed first); the error
+    // handler's settings (limit, listener) are kept. Token buffers scanned from the previous
+    // input keep their line index, so their positions stay right; after reset(Path) their
+    // source bytes are overwritten, though.
+    public ManualScanner reset(CharSequence source) {
+        return reset(source, 0, source.length(), 1);
+    }
+
+    // Byte-level mode, as in fromBytes.
+    public ManualScanner reset(ByteBuffer bytes) {
+        return reset(new AsciiCharSequence(bytes));
+    }
+
+    // Reads the file into a buffer this scanner keeps (and overwrites on the next reset(Path)),
+    // then scans its bytes in place as in fromBytes.
+    public ManualScanner reset(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large: " + path);
+            if (fileBuffer == null || fileBuffer.capacity() < size) {
+                fileBuffer = ByteBuffer.allocate((int) Math.max(size, fileBuffer == null ? 8192 : fileBuffer.capacity() * 2L));
+            }
+            fileBuffer.clear().limit((int) size);
+            while (fileBuffer.hasRemaining() && channel.read(fileBuffer) != -1) { }
+            return reset(fileBuffer.flip());
+        }
+    }
+
+    ManualScanner reset(CharSequence source, int from, int to, int firstLine) {
+        this.source = source;
+        this.bytes = source instanceof AsciiCharSequence ? (AsciiCharSequence) source : null;
+        this.text = source instanceof String ? (String) source : null;
+        this.nextLineFeed = -1;
+        this.nextReturn = -1;
+        this.current = from;
+        this.start = from;
+        this.origin = from;
+        this.end = to;
+        this.line = firstLine;
+        this.lineStart = from;
+        if (lineIndexShared) {
+            lineIndex = new LineIndex(firstLine, from);
+            lineIndexShared = false;
+        } else {
+            lineIndex.reset(firstLine, from);
+        }
+        this.tokenLine = firstLine;
+        this.tokenCol = 1;
+        this.tokenSymbol = -1;
+        this.tokenValue = 0;
+        this.started = false;
+        this.finished = false;
+        statistics.clear();
+        symbolTable.clear();
+        errorHandler.clear();
+        return this;
+    }
+
+    // Scans text that is already in memory.
+    public static ManualScanner fromSource(CharSequence source) {
+        return new ManualScanner(source);
+    }
+
+    // Byte-level mode: scans the bytes in place without copying or decoding them. Each byte is one
+    // char, so bytes >= 0x80 read as Latin-1: a two-byte UTF-8 character is two INVALID_CHAR
+    // errors (and two columns), where a decoded String gives one. CustomLang source is ASCII, so
+    // only invalid input can tell the modes apart.
+    public static ManualScanner fromBytes(ByteBuffer bytes) {
+        return new ManualScanner(new AsciiCharSequence(bytes));
+    }
+
+    // Maps the file read-only into memory; the mapping stays valid after the channel is closed.
+    public static ManualScanner mapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return fromBytes(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public <S extends TokenSink> S scan(S sink) {
+        TokenType type;
+        while ((type = scanNext()) != TokenType.EOF) {
+            if (type == TokenType.IDENTIFIER) {
+                sink.identifier(start, current - start, tokenLine, tokenCol, source, start, tokenSymbol);
+            } else if (type == TokenType.INTEGER_LITERAL || type == TokenType.FLOAT_LITERAL) {
+                sink.number(type, start, current - start, tokenLine, tokenCol, source, start, tokenValue);
+            } else {
+                sink.token(type, start, current - start, tokenLine, tokenCol, source, start);
+            }
+        }
+        sink.flush();
+        return sink;
+    }
+
+    // Works like Yylex.yylex(), so callers can stream a file without holding every token.
+    @Override
+    public Token nextToken() {
+        TokenType type = scanNext();
+        if (type == TokenType.EOF) return new Token(TokenType.EOF, "", line, column(), -1, current);
+        // identifiers share the symbol table's single copy of their name
+        if (type == TokenType.IDENTIFIER) {
+            return new Token(type, symbolTable.getName(tokenSymbol), tokenLine, tokenCol, tokenSymbol, start);
+        }
+        String fixed = Token.fixedLexeme(type, source, start, current - start);
+        return new Token(type, fixed != null ? fixed : lexeme(), tokenLine, tokenCol, -1, start);
+    }
+
+    // Scans the rest of the input into a packed buffer instead of allocating a Token per lexeme.
+    // The buffer stores no lines or columns: it looks them up in this scan's line index, which
+    // it then owns; the next reset() starts a new index rather than clearing this one.
+    public TokenBuffer scanToBuffer() {
+        lineIndexShared = true;
+        return scan(new TokenBuffer(source, lineIndex));
+    }
+
+    // Same, reusing a buffer (e.g. across reset() calls); its previous tokens are dropped.
+    public TokenBuffer scanToBuffer(TokenBuffer buffer) {
+        lineIndexShared = true;
+        return scan(buffer.reset(source, lineIndex));
+    }
+
+    // Advances past the next valid token and returns its type (EOF at the end).
+    // The lexeme spans [start, current) and begins at tokenLine/tokenCol.
+    // Stops early once the error handler's limit is reached.
+    private TokenType scanNext() {
+        if (!started) {
+            started = true;
+            startNanos = System.nanoTime();
+        }
+        while (!isAtEnd() && !errorHandler.limitReached()) {
             start = current;
+            tokenLine = line;
+            tokenCol = current - lineStart + 1;
+            tokenSymbol = -1;
+            tokenValue = 0;
             char c = peek();
 
             // 1. Whitespace
@@ -47,121 +219,160 @@ public class ManualScanner {
                 continue;
             }
 
-            Token token = null;
+            TokenType type;
 
             // 3. Logic Dispatch for the 7 Token Types
             if (isDigit(c) || ((c == '+' || c == '-') && isDigit(peekNext()))) {
-                token = scanNumber(); // Handles Integer and Float
+                type = scanNumber(); // Handles Integer and Float
             }
             else if (isUpper(c)) {
-                token = scanIdentifier(); // Handles Identifiers
+                type = scanIdentifier(); // Handles Identifiers
             }
             else if (isLower(c)) {
-                token = scanBoolean(); // Handles Booleans (true/false)
+                type = scanBoolean(); // Handles Booleans (true/false)
             }
             else if (isOperatorOrPunctuator(c)) {
-                token = scanOperatorOrPunctuator(); // Handles Arith Ops & Punctuators
+                type = scanOperatorOrPunctuator(); // Handles Arith Ops & Punctuators
             }
             else {
                 // ERROR RECOVERY: Invalid Character
-                String invalidChar = String.valueOf(advance());
-                errorHandler.addError("Invalid Char", line, col - 1, invalidChar, "Character not in alphabet");
+                advance();
+                errorHandler.addError(ErrorCode.INVALID_CHAR, line, tokenCol, source, start, 1);
                 continue; 
             }
 
-            if (token != null && token.getType() != TokenType.ERROR) {
-                tokens.add(token);
-                totalTokens++;
-                tokenCounts[token.getType().ordinal()]++;
-                System.out.println(token); 
+            if (type != TokenType.ERROR) {
+                statistics.recordToken(type);
+                return type;
             }
         }
 
-        printStatistics();
-        errorHandler.printErrors(); 
-        symbolTable.printTable();
-        return tokens;
+        finish();
+        return TokenType.EOF;
+    }
+
+    // Reports the completed scan to ScanMetrics, once.
+    private void finish() {
+        if (finished) return;
+        finished = true;
+        ScanMetrics.scanFinished("manual", startNanos, end - origin, getStatistics(), errorHandler, symbolTable, -1);
     }
 
     // 1. IDENTIFIER: [A-Z][a-z0-9]{0,30}
-    private Token scanIdentifier() {
-        advance(); // consume the Uppercase letter
+    private TokenType scanIdentifier() {
+        int hash = advance(); // consume the Uppercase letter
         
+        // hash follows String.hashCode() so the symbol table can look the name up in place
         while (isLower(peek()) || isDigit(peek())) {
-            advance();
+            hash = 31 * hash + advance();
         }
 
-        String text = source.substring(start, current);
-        
         // Error: Length > 31
-        if (text.length() > 31) {
-            errorHandler.addError("Invalid ID", line, col - text.length(), text.substring(0, 10) + "...", "Identifier exceeds 31 characters");
-            return new Token(TokenType.ERROR, text, line, col - text.length());
+        if (current - start > 31) {
+            errorHandler.addError(ErrorCode.IDENTIFIER_TOO_LONG, line, tokenCol, source, start, 10);
+            return TokenType.ERROR;
         }
 
-        symbolTable.addIdentifier(text, line);
-        return new Token(TokenType.IDENTIFIER, text, line, col - text.length());
+        tokenSymbol = symbolTable.addIdentifier(source, start, current - start, hash, line);
+        return TokenType.IDENTIFIER;
     }
 
     // 2. BOOLEAN LITERAL: (true|false)
-    private Token scanBoolean() {
+    private TokenType scanBoolean() {
         advance();
         while (isLower(peek())) {
             advance();
         }
 
-        String text = source.substring(start, current);
-
-        if (text.equals("true") || text.equals("false")) {
-            return new Token(TokenType.BOOLEAN_LITERAL, text, line, col - text.length());
+        if (matches("true") || matches("false")) {
+            return TokenType.BOOLEAN_LITERAL;
         }
 
         // If it starts with lowercase but isn't true/false, it's an invalid identifier
-        errorHandler.addError("Invalid ID", line, col - text.length(), text, "Identifiers must start with Uppercase");
-        return new Token(TokenType.ERROR, text, line, col - text.length());
+        errorHandler.addError(ErrorCode.LOWERCASE_IDENTIFIER, line, tokenCol, source, start, current - start);
+        return TokenType.ERROR;
     }
 
     // 3 & 4. INTEGER LITERAL AND FLOATING POINT LITERAL
-    private Token scanNumber() {
+    // The value is decoded into tokenValue while the digits are consumed.
+    private TokenType scanNumber() {
+        boolean isFloat = false;
+        number.start(peek() == '-');
         if (peek() == '+' || peek() == '-') advance();
         
-        while (isDigit(peek())) advance();
+        while (isDigit(peek())) number.digit(advance() - '0');
 
         if (peek() == '.') {
             if (isDigit(peekNext())) {
+                isFloat = true;
                 advance(); 
-                while (isDigit(peek())) advance();
+                while (isDigit(peek())) number.fractionDigit(advance() - '0');
 
                 if (peek() == '.') {
-                    String malformed = ".";
+                    int malformed = current;
                     advance(); 
-                    while(isDigit(peek())) { malformed += advance(); }
-                    errorHandler.addError("Malformed Literal", line, col, malformed, "Float cannot have multiple decimal points");
+                    while (isDigit(peek())) advance();
+                    errorHandler.addError(ErrorCode.MULTIPLE_DECIMAL_POINTS, line, column(), source, malformed, current - malformed);
                 }
             } else {
-                errorHandler.addError("Malformed Literal", line, col, ".", "Float must have digits after decimal");
+                errorHandler.addError(ErrorCode.MISSING_FRACTION_DIGITS, line, column(), source, current, 1);
             }
         }
         
         if (peek() == 'e' || peek() == 'E') {
+            isFloat = true;
             advance(); 
-            if (peek() == '+' || peek() == '-') advance(); 
-            while (isDigit(peek())) advance(); 
+            if (peek() == '+' || peek() == '-') number.exponentSign(advance() == '-');
+            while (isDigit(peek())) number.exponentDigit(advance() - '0');
         }
-        
-        String text = source.substring(start, current);
-        boolean isFloat = text.contains(".") || text.contains("e") || text.contains("E");
-        
-        return isFloat ? new Token(TokenType.FLOAT_LITERAL, text, line, col - text.length()) 
-                       : new Token(TokenType.INTEGER_LITERAL, text, line, col - text.length());
+
+        if (isFloat) {
+            tokenValue = Double.doubleToRawLongBits(number.doubleValue(source, start, current));
+            return TokenType.FLOAT_LITERAL;
+        }
+        if (number.overflows()) {
+            errorHandler.addError(ErrorCode.INTEGER_OUT_OF_RANGE, line, tokenCol, source, start, current - start);
+        }
+        tokenValue = number.longValue();
+        return TokenType.INTEGER_LITERAL;
     }
 
     // 5. SINGLE LINE COMMENT: ##[^\n]*
     private void scanSingleLineComment() {
-        commentsRemoved++;
-        while (peek() != '\n' && !isAtEnd()) {
-            advance();
+        statistics.recordComment();
+        current = lineEnd(current);
+    }
+
+    // Index of the next \n or \r at or after from, or end.
+    private int lineEnd(int from) {
+        if (bytes != null) return bytes.indexOfLineEnd(from, end);
+        if (text != null) {
+            // String.indexOf is vectorized by the JIT; each result stays valid until the scan
+            // passes it, so the text is searched once per line break rather than once per comment
+            if (nextLineFeed < from) nextLineFeed = indexOf(text, '\n', from);
+            if (nextReturn < from) nextReturn = indexOf(text, '\r', from);
+            return Math.min(nextLineFeed, nextReturn);
         }
+        int i = from;
+        while (i < end && source.charAt(i) != '\n' && source.charAt(i) != '\r') i++;
+        return i;
+    }
+
+    private int indexOf(String text, char c, int from) {
+        int i = text.indexOf(c, from);
+        return i < 0 || i > end ? end : i;
+    }
+
+    // Spaces and tabs don't end a line, so a whole run is skipped at once.
+    private void skipBlanks() {
+        int i = current;
+        if (bytes != null) {
+            i = bytes.skipBlanks(i, end);
+        } else {
+            char c;
+            while (i < end && ((c = source.charAt(i)) == ' ' || c == '\t')) i++;
+        }
+        current = i;
     }
     
     private boolean isOperatorOrPunctuator(char c) {
@@ -169,55 +380,94 @@ public class ManualScanner {
     }
 
     // 6 & 7. ARITHMETIC OPERATORS AND PUNCTUATORS
-    private Token scanOperatorOrPunctuator() {
+    private TokenType scanOperatorOrPunctuator() {
         char c = advance();
-        String text = String.valueOf(c);
         
         switch (c) {
             case '(': case ')': case '{': case '}': case '[': case ']': 
             case ',': case ';': case ':': 
-                return new Token(TokenType.PUNCTUATOR, text, line, col - 1);
+                return TokenType.PUNCTUATOR;
             
             case '+': case '-': case '*': case '/': case '%':
-                return new Token(TokenType.ARITHMETIC_OP, text, line, col - 1);
+                return TokenType.ARITHMETIC_OP;
         }
         
-        return new Token(TokenType.ERROR, "Unknown: " + text, line, col - 1);
+        return TokenType.ERROR;
     }
 
     // --- UTILITY HELPERS ---
     private void handleWhitespace() { 
+        if (peek() == ' ' || peek() == '\t') { skipBlanks(); return; }
         char c = advance(); 
-        if (c == '\n') { line++; col = 1; } 
+        // \r\n counts once: the \r is skipped and the following \n ends the line
+        if (c == '\n' || (c == '\r' && peek() != '\n')) { line++; lineStart = current; lineIndex.add(current); } 
     }
     private boolean isDigit(char c) { return c >= '0' && c <= '9'; }
     private boolean isUpper(char c) { return c >= 'A' && c <= 'Z'; }
     private boolean isLower(char c) { return c >= 'a' && c <= 'z'; }
-    private char advance() { col++; return source.charAt(current++); }
+    private char advance() { return source.charAt(current++); }
+    private int column() { return current - lineStart + 1; }
     private char peek() { return isAtEnd() ? '\0' : source.charAt(current); }
-    private char peekNext() { return (current + 1 >= source.length()) ? '\0' : source.charAt(current + 1); }
-    private boolean isAtEnd() { return current >= source.length(); }
-    
-    private void printStatistics() {
-        System.out.println("\n--- Scanner Statistics ---");
-        System.out.println("Total Tokens: " + totalTokens);
-        System.out.println("Lines Processed: " + line);
-        System.out.println("Comments Removed: " + commentsRemoved);
-        for (TokenType t : TokenType.values()) {
-            if (t != TokenType.EOF && t != TokenType.ERROR && tokenCounts[t.ordinal()] > 0) {
-                System.out.println(String.format("%-15s : %d", t, tokenCounts[t.ordinal()]));
-            }
+    private char peekNext() { return (current + 1 >= end) ? '\0' : source.charAt(current + 1); }
+    private boolean isAtEnd() { return current >= end; }
+    private String lexeme() { return source.subSequence(start, current).toString(); }
+    private boolean matches(String word) {
+        if (current - start != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (source.charAt(start + i) != word.charAt(i)) return false;
         }
-        System.out.println("--------------------------\n");
+        return true;
+    }
+    
+    // Pull API for IncrementalLexer: the next token's type (EOF at the end); its position can be
+    // read from the accessors below until the following call.
+    TokenType nextType() { return scanNext(); }
+    int tokenStart() { return start; }
+    int tokenLength() { return current - start; }
+    int tokenLine() { return tokenLine; }
+    int tokenColumn() { return tokenCol; }
+    int tokenSymbol() { return tokenSymbol; }
+    long tokenValue() { return tokenValue; }
+
+    public ScanStatistics getStatistics() {
+        statistics.setLines(line);
+        return statistics;
     }
 
+    public SymbolTable getSymbolTable() { return symbolTable; }
+    public ErrorHandler getErrorHandler() { return errorHandler; }
+    // Line starts seen so far; complete once the scan has reached the end. Like a scanned
+    // buffer, the caller keeps this index across reset().
+    public LineIndex getLineIndex() {
+        lineIndexShared = true;
+        return lineIndex;
+    }
+
+    // Usage: ManualScanner [-q|-c] [-max-errors=n] [file]
+    //   -q skips the token listing and only prints the report
+    //   -c writes the tokens to stdout as a compact binary stream
+    //   -max-errors stops scanning after n errors
     public static void main(String[] args) {
         try {
             String file = "tests/test5.lang"; 
-            if (args.length > 0) file = args[0];
+            boolean quiet = false;
+            boolean compact = false;
+            int maxErrors = Integer.MAX_VALUE;
+            for (String arg : args) {
+                if (arg.equals("-q")) quiet = true;
+                else if (arg.equals("-c")) compact = true;
+                else if (arg.startsWith("-max-errors=")) maxErrors = Integer.parseInt(arg.substring(12));
+                else file = arg;
+            }
             
             ManualScanner scanner = new ManualScanner(file);
-            scanner.scanTokens();
+            scanner.getErrorHandler().setLimit(maxErrors);
+            if (compact) {
+                scanner.scan(new CompactTokenSink(System.out));
+                return;
+            }
+            scanner.scan(quiet ? TokenSink.NONE : new TextTokenSink(System.out));
+            ScanReport.of(scanner).print(System.out);
         } catch (IOException e) {
             System.err.println("File error: " + e.getMessage());
         }
@@ -0,0 +1,225 @@
+package src;
+import java.math.BigInteger;
+
+// Decodes integer and float literals into a long/double as their digits are consumed, without
+// building a String. One decoder is reused for every literal of a scan.
+// Floats are rounded correctly: an exact fast path for small values, then the Eisel-Lemire
+// algorithm, and Double.parseDouble only for the rare inputs neither can settle.
+public final class NumberDecoder {
+    // Significant digits kept in the mantissa; 19 decimal digits always fit in an unsigned long
+    private static final int MAX_DIGITS = 19;
+
+    private static final double[] EXACT_POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 128-bit mantissas of 10^e rounded down, for MIN_EXP10 <= e <= MAX_EXP10
+    private static final int MIN_EXP10 = -348;
+    private static final int MAX_EXP10 = 347;
+    private static final long[] POWERS_HIGH = new long[MAX_EXP10 - MIN_EXP10 + 1];
+    private static final long[] POWERS_LOW = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+    static {
+        for (int e = MIN_EXP10; e <= MAX_EXP10; e++) {
+            BigInteger m;
+            if (e >= 0) {
+                m = BigInteger.TEN.pow(e);
+                int shift = 128 - m.bitLength();
+                m = shift >= 0 ? m.shiftLeft(shift) : m.shiftRight(-shift);
+            } else {
+                BigInteger divisor = BigInteger.TEN.pow(-e);
+                m = BigInteger.ONE.shiftLeft(127 + divisor.bitLength()).divide(divisor);
+            }
+            POWERS_HIGH[e - MIN_EXP10] = m.shiftRight(64).longValue();
+            POWERS_LOW[e - MIN_EXP10] = m.longValue();
+        }
+    }
+
+    private long mantissa;     // unsigned: the first MAX_DIGITS significant digits
+    private int digits;        // significant digits in mantissa
+    private int exp10;         // value = mantissa * 10^(exp10 + exponent)
+    private boolean truncated; // non-zero digits were dropped after MAX_DIGITS
+    private boolean negative;
+    private int exponent;
+    private boolean exponentNegative;
+
+    public void start(boolean negative) {
+        this.negative = negative;
+        mantissa = 0;
+        digits = 0;
+        exp10 = 0;
+        truncated = false;
+        exponent = 0;
+        exponentNegative = false;
+    }
+
+    // Integer part
+    public void digit(int d) {
+        if (digits == 0 && d == 0) return;
+        if (digits < MAX_DIGITS) {
+            mantissa = 10 * mantissa + d;
+            digits++;
+        } else {
+            exp10++;
+            truncated |= d != 0;
+        }
+    }
+
+    public void fractionDigit(int d) {
+        if (digits == 0 && d == 0) {
+            exp10--;
+        } else if (digits < MAX_DIGITS) {
+            mantissa = 10 * mantissa + d;
+            digits++;
+            exp10--;
+        } else {
+            truncated |= d != 0;
+        }
+    }
+
+    public void exponentSign(boolean negative) {
+        exponentNegative = negative;
+    }
+
+    public void exponentDigit(int d) {
+        // beyond this every double is 0 or infinite anyway
+        if (exponent < 100000) exponent = 10 * exponent + d;
+    }
+
+    // Decodes a whole INTEGER_LITERAL or FLOAT_LITERAL lexeme, as ManualScanner accepts them:
+    // the digits after a second '.' are ignored, and so is an 'e' without exponent digits.
+    public void decode(CharSequence text, int start, int end) {
+        int i = start;
+        char c = text.charAt(i);
+        start(c == '-');
+        if (c == '+' || c == '-') i++;
+        while (i < end && isDigit(c = text.charAt(i))) { digit(c - '0'); i++; }
+        if (i < end && c == '.') {
+            i++;
+            while (i < end && isDigit(c = text.charAt(i))) { fractionDigit(c - '0'); i++; }
+            if (i < end && c == '.') {
+                i++;
+                while (i < end && isDigit(c = text.charAt(i))) i++;
+            }
+        }
+        if (i < end && (c == 'e' || c == 'E')) {
+            i++;
+            if (i < end && ((c = text.charAt(i)) == '+' || c == '-')) { exponentSign(c == '-'); i++; }
+            while (i < end && isDigit(c = text.charAt(i))) { exponentDigit(c - '0'); i++; }
+        }
+    }
+
+    // True if the integer read since start() does not fit in a long.
+    public boolean overflows() {
+        return exp10 > 0 || Long.compareUnsigned(mantissa, negative ? Long.MIN_VALUE : Long.MAX_VALUE) > 0;
+    }
+
+    // The integer read since start(); saturates at Long.MIN_VALUE/MAX_VALUE on overflow.
+    public long longValue() {
+        if (overflows()) return negative ? Long.MIN_VALUE : Long.MAX_VALUE;
+        return negative ? -mantissa : mantissa;
+    }
+
+    // The float read since start(); text[start, end) is its lexeme, only re-read on the slow path.
+    public double doubleValue(CharSequence text, int start, int end) {
+        if (mantissa == 0) return negative ? -0.0 : 0.0;
+        int e = exp10 + (exponentNegative ? -exponent : exponent);
+        double value = fastDouble(mantissa, e, negative);
+        // dropped digits: the value lies in [mantissa, mantissa + 1) * 10^e
+        if (truncated && value != fastDouble(mantissa + 1, e, negative)) value = Double.NaN;
+        if (Double.isNaN(value)) value = Double.parseDouble(plainText(text, start, end));
+        return value;
+    }
+
+    // Correctly rounded mantissa * 10^e (mantissa unsigned and non-zero), or NaN if undecided.
+    static double fastDouble(long mantissa, int e, boolean negative) {
+        // Both operands exact, so one IEEE operation rounds correctly
+        if (Long.compareUnsigned(mantissa, 1L << 53) <= 0 && e >= -22 && e <= 22) {
+            double m = negative ? -(double) mantissa : (double) mantissa;
+            return e >= 0 ? m * EXACT_POWERS[e] : m / EXACT_POWERS[-e];
+        }
+        if (e < MIN_EXP10 || e > MAX_EXP10) return Double.NaN;
+
+        int shift = Long.numberOfLeadingZeros(mantissa);
+        long m = mantissa << shift;
+        long exp2 = ((217706L * e) >> 16) + 64 + 1023 - shift;
+
+        long powerHigh = POWERS_HIGH[e - MIN_EXP10];
+        long high = unsignedMultiplyHigh(m, powerHigh);
+        long low = m * powerHigh;
+        // The truncated power may be too small; widen with its low 64 bits when that matters
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + m, m) < 0) {
+            long powerLow = POWERS_LOW[e - MIN_EXP10];
+            long extraHigh = unsignedMultiplyHigh(m, powerLow);
+            long extraLow = m * powerLow;
+            long mergedHigh = high;
+            long mergedLow = low + extraHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) mergedHigh++;
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0 && Long.compareUnsigned(extraLow + m, m) < 0) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        long msb = high >>> 63;
+        long bits = high >>> (msb + 9);
+        exp2 -= 1 ^ msb;
+        // exactly halfway between two doubles: let the slow path break the tie
+        if (low == 0 && (high & 0x1FF) == 0 && (bits & 3) == 1) return Double.NaN;
+
+        bits += bits & 1;
+        bits >>>= 1;
+        if ((bits >>> 53) > 0) {
+            bits >>>= 1;
+            exp2++;
+        }
+        // subnormal, zero or infinite results take the slow path
+        if (exp2 < 1 || exp2 >= 0x7FF) return Double.NaN;
+
+        long result = exp2 << 52 | bits & 0x000FFFFFFFFFFFFFL;
+        if (negative) result |= Long.MIN_VALUE;
+        return Double.longBitsToDouble(result);
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    // The lexeme in a form Double.parseDouble accepts (see decode for what is dropped).
+    private static String plainText(CharSequence text, int start, int end) {
+        StringBuilder plain = new StringBuilder(end - start + 2);
+        int i = start;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (fraction) {
+                    i++;
+                    while (i < end && isDigit(text.charAt(i))) i++;
+                    break;
+                }
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            }
+            plain.append(c);
+        }
+        if (i < end) {
+            int mark = plain.length();
+            plain.append('e');
+            i++;
+            if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) plain.append(text.charAt(i++));
+            boolean hasDigits = false;
+            for (; i < end && isDigit(text.charAt(i)); i++) {
+                plain.append(text.charAt(i));
+                hasDigits = true;
+            }
+            if (!hasDigits) plain.setLength(mark);
+        }
+        return plain.toString();
+    }
+
+    private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+}
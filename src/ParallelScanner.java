@@ -0,0 +1,119 @@
+package src;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Scans one input on several cores. CustomLang has no multi-line tokens, so the source is cut
+// into line-aligned chunks that are scanned independently with ManualScanner and then stitched
+// back together in order. The result is identical to a sequential scan.
+public class ParallelScanner {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private final CharSequence source;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    private final ScanStatistics statistics = new ScanStatistics();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    public ParallelScanner(CharSequence source) {
+        this(source, ForkJoinPool.commonPool(),
+             Math.max(MIN_CHUNK_SIZE, source.length() / (ForkJoinPool.commonPool().getParallelism() * 4 + 1)));
+    }
+
+    public ParallelScanner(CharSequence source, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        this.source = source;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public static ParallelScanner mapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return new ParallelScanner(new AsciiCharSequence(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+
+    // Single use: scans the whole input and merges the chunks in source order.
+    public TokenBuffer scan() {
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        int from = 0;
+        int length = source.length();
+        do {
+            int to = chunkEnd(from + chunkSize);
+            int chunkFrom = from;
+            tasks.add(pool.submit(() -> scanChunk(chunkFrom, to)));
+            from = to;
+        } while (from < length);
+
+        TokenBuffer tokens = new TokenBuffer(source);
+        int lineOffset = 0;
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = task.join();
+            int[] symbolMap = symbolTable.merge(chunk.scanner.getSymbolTable(), lineOffset);
+            tokens.append(chunk.tokens, lineOffset, symbolMap);
+            statistics.merge(chunk.scanner.getStatistics());
+            errorHandler.merge(chunk.scanner.getErrorHandler(), lineOffset);
+            // every chunk but the last ends right after a newline, so its last line is the next chunk's first
+            lineOffset += chunk.scanner.getStatistics().getLines() - 1;
+        }
+        statistics.setLines(lineOffset + 1);
+        return tokens;
+    }
+
+    // Moves a tentative boundary forward to just past the next '\n' (or to the end of input).
+    private int chunkEnd(int target) {
+        int length = source.length();
+        if (target >= length) return length;
+        for (int i = target; i < length; i++) {
+            if (source.charAt(i) == '\n') return i + 1;
+        }
+        return length;
+    }
+
+    private Chunk scanChunk(int from, int to) {
+        ManualScanner scanner = new ManualScanner(source, from, to);
+        TokenBuffer tokens = scanner.scan(new TokenBuffer(source, (to - from) / 8));
+        return new Chunk(scanner, tokens);
+    }
+
+    private static class Chunk {
+        final ManualScanner scanner;
+        final TokenBuffer tokens;
+
+        Chunk(ManualScanner scanner, TokenBuffer tokens) {
+            this.scanner = scanner;
+            this.tokens = tokens;
+        }
+    }
+
+    public ScanStatistics getStatistics() { return statistics; }
+    public SymbolTable getSymbolTable() { return symbolTable; }
+    public ErrorHandler getErrorHandler() { return errorHandler; }
+
+    // Usage: ParallelScanner [-q] [file]   (same output as ManualScanner)
+    public static void main(String[] args) {
+        try {
+            String file = "tests/test5.lang";
+            boolean quiet = false;
+            for (String arg : args) {
+                if (arg.equals("-q")) quiet = true;
+                else file = arg;
+            }
+
+            ParallelScanner scanner = new ParallelScanner(new String(Files.readAllBytes(Paths.get(file))));
+            TokenBuffer tokens = scanner.scan();
+            if (!quiet) tokens.writeTo(new TextTokenSink(System.out));
+            new ScanReport(scanner.getStatistics(), scanner.getSymbolTable(), scanner.getErrorHandler()).print(System.out);
+        } catch (IOException e) {
+            System.err.println("File error: " + e.getMessage());
+        }
+    }
+}
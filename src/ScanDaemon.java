@@ -0,0 +1,466 @@
+package src;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Resident scanner process, so tools that scan one file at a time pay for JVM startup and JIT
+// warm-up once instead of per file. Listens on a Unix domain socket or a localhost port; a
+// connection sends any number of requests and gets one response for each, in order:
+//
+//   request   PATH <path>\n                  scan a file the daemon can read (over TCP only if allowed)
+//             SOURCE <n>\n, then n bytes      scan inline content
+//             SHUTDOWN\n                      if allowed, stop once the requests being scanned are done
+//   response  OK <n> <errors>\n, then n bytes of compact token stream (CompactTokenSink),
+//             then <errors> lines, one per error
+//             ERROR <message>\n               the request could not be served; after a SOURCE
+//                                             size that doesn't parse, the connection is closed
+//
+// Input is scanned in place as bytes, one char each: non-ASCII bytes read as Latin-1, so a UTF-8
+// character is reported as one INVALID_CHAR error per byte. At most `threads` scans run at once, each
+// on a pooled worker that keeps its buffers (and a reset ManualScanner) between requests; further connections wait in the
+// listen backlog once `connections` are open.
+//
+// Every client is trusted with every request the daemon accepts. The socket file is made
+// owner-only; over TCP any local user can connect, so PATH is refused there unless allowed, and
+// SHUTDOWN is refused on either transport unless allowed.
+public class ScanDaemon {
+    public static final int DEFAULT_MAX_REQUEST_BYTES = 64 << 20;
+    private static final int MAX_HEADER_LENGTH = 4096;
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    // Per-scan state reused across requests: the input and output buffers, the sink, and for
+    // the MANUAL engine the scanner itself.
+    private static class Worker {
+        private final ManualScanner scanner = new ManualScanner();
+        private ByteBuffer input = ByteBuffer.allocate(65536);
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream(65536);
+        private final CompactTokenSink sink = new CompactTokenSink(output);
+
+        ByteBuffer input(int size) {
+            if (input.capacity() < size) input = ByteBuffer.allocate(Math.max(size, input.capacity() * 2));
+            input.clear().limit(size);
+            return input;
+        }
+    }
+
+    private final Lexers.Engine engine;
+    private final BlockingQueue<Worker> workers;
+    private final int threads;
+    private final Semaphore connectionSlots;
+    private final ExecutorService connections;
+    private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+    private int maxRequestBytes = DEFAULT_MAX_REQUEST_BYTES;
+    private int maxErrors = Integer.MAX_VALUE;
+    private boolean allowShutdown = false;
+    private boolean allowTcpPath = false;
+    private boolean tcp = false;
+
+    private ServerSocketChannel server;
+    private Path socketFile;
+    private volatile boolean running = true;
+    private final Object stopLock = new Object();
+    private boolean stopped = false;
+
+    public ScanDaemon(Lexers.Engine engine, int threads, int maxConnections) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive: " + threads);
+        if (maxConnections <= 0) throw new IllegalArgumentException("maxConnections must be positive: " + maxConnections);
+        this.engine = engine;
+        this.threads = threads;
+        this.workers = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) workers.add(new Worker());
+        this.connectionSlots = new Semaphore(maxConnections);
+        this.connections = Executors.newFixedThreadPool(maxConnections);
+    }
+
+    public ScanDaemon setMaxRequestBytes(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+        return this;
+    }
+
+    // Errors kept (and returned) per request; scanning stops at the limit.
+    public ScanDaemon setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    // Whether clients may stop the daemon with SHUTDOWN.
+    public ScanDaemon setAllowShutdown(boolean allowShutdown) {
+        this.allowShutdown = allowShutdown;
+        return this;
+    }
+
+    // Whether PATH is served over TCP, i.e. whether any local user may have the daemon read files as its own user.
+    public ScanDaemon setAllowTcpPath(boolean allowTcpPath) {
+        this.allowTcpPath = allowTcpPath;
+        return this;
+    }
+
+    // Runs the engine over generated input until the JIT has compiled the scan loop, so the
+    // first real requests are served at full speed.
+    public ScanDaemon warmUp(int rounds) {
+        StringBuilder sample = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sample.append("## warm-up line ").append(i).append('\n')
+                  .append("    Count").append(i % 17).append(" : ").append(i * 31).append(" + 2.5e-3 * (Total - ")
+                  .append(-i).append(".125) ;\r\n")
+                  .append("\tFlag = true, Other = false; lowercase 1.2.3 @\n");
+        }
+        byte[] bytes = sample.toString().getBytes(StandardCharsets.US_ASCII);
+        Worker worker = workers.peek();
+        for (int i = 0; i < rounds; i++) {
+            ByteBuffer input = worker.input(bytes.length);
+            input.put(bytes).flip();
+            scan(worker, input);
+        }
+        return this;
+    }
+
+    // Binds to a Unix domain socket only the owner can connect to; a stale socket file from an
+    // earlier run is replaced. bind() creates the file with umask permissions, so it is bound
+    // inside a private (0700) directory next to socketPath, narrowed to rw------- there, and only
+    // then renamed into place: nobody else can connect in between.
+    public ScanDaemon bind(Path socketPath) throws IOException {
+        Path parent = socketPath.toAbsolutePath().getParent();
+        Path privateDir;
+        try {
+            privateDir = Files.createTempDirectory(parent, ".customlang-",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            // no POSIX permissions here; the directory's permissions are all there is
+            privateDir = Files.createTempDirectory(parent, ".customlang-");
+        }
+        Path bound = privateDir.resolve("s");
+        try {
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(bound));
+            try {
+                Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // as above
+            }
+            Files.deleteIfExists(socketPath);
+            Files.move(bound, socketPath, StandardCopyOption.ATOMIC_MOVE);
+            socketFile = socketPath;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(server);
+            Files.deleteIfExists(bound);
+            throw e;
+        } finally {
+            Files.deleteIfExists(privateDir);
+        }
+        return this;
+    }
+
+    // Binds to a loopback port (0 picks a free one; see getPort()).
+    public ScanDaemon bind(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        tcp = true;
+        return this;
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    // Accepts connections until shutdown(); blocks the calling thread.
+    public void serve() throws IOException {
+        try {
+            while (running) {
+                connectionSlots.acquireUninterruptibly();
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (ClosedChannelException e) {
+                    connectionSlots.release();
+                    break;
+                }
+                open.add(channel);
+                connections.execute(() -> {
+                    try {
+                        handle(channel);
+                    } finally {
+                        open.remove(channel);
+                        closeQuietly(channel);
+                        connectionSlots.release();
+                    }
+                });
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    // Stops accepting, lets the scans in progress finish and answer, then closes the remaining
+    // (idle) connections. Safe to call more than once and from any thread.
+    public void shutdown() {
+        synchronized (stopLock) {
+            if (stopped) return;
+            stopped = true;
+        }
+        running = false;
+        closeQuietly(server);
+        try {
+            // holding every worker means no scan is in progress; one deadline for all of them, so
+            // a wedged scan delays shutdown by at most SHUTDOWN_WAIT_SECONDS however many workers there are
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_WAIT_SECONDS);
+            for (int i = 0; i < threads; i++) {
+                if (workers.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) == null) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SocketChannel channel : open) closeQuietly(channel);
+        connections.shutdownNow();
+        if (socketFile != null) {
+            try {
+                Files.deleteIfExists(socketFile);
+            } catch (IOException e) {
+                System.err.println("Could not remove " + socketFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return connections.awaitTermination(timeout, unit);
+    }
+
+    private void handle(SocketChannel channel) {
+        try {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 65536);
+            String request;
+            while (running && (request = readLine(in)) != null) {
+                if (request.equals("SHUTDOWN") && allowShutdown) {
+                    out.write("OK 0 0\n".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    new Thread(this::shutdown, "scan-daemon-shutdown").start();
+                    return;
+                }
+                respond(request, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away or the daemon is shutting down
+        }
+    }
+
+    private void respond(String request, InputStream in, OutputStream out) throws IOException {
+        if (request.equals("SHUTDOWN")) {
+            error(out, "SHUTDOWN is disabled; start the daemon with -allow-shutdown");
+            return;
+        }
+        if (request.startsWith("PATH ") && tcp && !allowTcpPath) {
+            error(out, "PATH is disabled over TCP; send SOURCE, or start the daemon with -allow-tcp-path");
+            return;
+        }
+        int size = 0;
+        if (request.startsWith("SOURCE ")) {
+            long requested = parseSize(request.substring(7));
+            if (requested < 0) {
+                // without its size the payload can't be told apart from the next request
+                error(out, "Invalid size: " + request.substring(7));
+                out.flush();
+                throw new IOException("Invalid size");
+            }
+            if (requested > maxRequestBytes) {
+                // consume the payload so none of it is read as a request
+                in.skipNBytes(requested);
+                error(out, "Request too large: " + requested + " bytes, limit " + maxRequestBytes);
+                return;
+            }
+            size = (int) requested;
+        }
+        Worker worker;
+        try {
+            worker = workers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClosedChannelException();
+        }
+        try {
+            ErrorHandler errors;
+            if (request.startsWith("SOURCE ")) {
+                ByteBuffer input = worker.input(size);
+                readFully(in, input.array(), size);
+                errors = scan(worker, input);
+            } else if (request.startsWith("PATH ")) {
+                ByteBuffer input;
+                try {
+                    input = read(worker, Paths.get(request.substring(5)));
+                } catch (IOException | RuntimeException e) {
+                    error(out, "Cannot read " + request.substring(5) + ": " + e.getMessage());
+                    return;
+                }
+                if (input == null) {
+                    error(out, "File too large: " + request.substring(5));
+                    return;
+                }
+                errors = scan(worker, input);
+            } else {
+                error(out, "Unknown request: " + request);
+                return;
+            }
+
+            int count = errors.getErrors().size();
+            out.write(("OK " + worker.output.size() + " " + count + "\n").getBytes(StandardCharsets.US_ASCII));
+            worker.output.writeTo(out);
+            for (ErrorHandler.ErrorRecord error : errors.getErrors()) {
+                out.write((error + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            workers.add(worker);
+        }
+    }
+
+    // Scans the worker's input into its output buffer; returns the errors.
+    private ErrorHandler scan(Worker worker, ByteBuffer input) {
+        worker.output.reset();
+        try (Lexer lexer = engine == Lexers.Engine.MANUAL ? worker.scanner.reset(input) : Lexers.fromBytes(engine, input)) {
+            lexer.getErrorHandler().setLimit(maxErrors);
+            lexer.scan(worker.sink);
+            return lexer.getErrorHandler();
+        }
+    }
+
+    // The file's bytes in the worker's input buffer, or null if it exceeds maxRequestBytes.
+    private ByteBuffer read(Worker worker, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxRequestBytes) return null;
+            ByteBuffer input = worker.input((int) size);
+            while (input.hasRemaining() && channel.read(input) != -1) { }
+            return input.flip();
+        }
+    }
+
+    // The payload size of a SOURCE request, or -1 if it isn't a non-negative number.
+    private static long parseSize(String text) {
+        try {
+            return Math.max(Long.parseLong(text.trim()), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(("ERROR " + message.replace('\n', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    // One header line without its \n (a trailing \r is dropped too), or null at end of stream.
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                if (line.size() == 0) return null;
+                break;
+            }
+            if (line.size() == MAX_HEADER_LENGTH) throw new IOException("Request header too long");
+            line.write(b);
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int n = 0;
+        while (n < length) {
+            int read = in.read(buffer, n, length - n);
+            if (read == -1) throw new IOException("Request truncated");
+            n += read;
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) closeable.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+    }
+
+    // Usage: ScanDaemon [-socket=path | -port=n] [-engine=manual|table|jflex] [-threads=n]
+    //                   [-connections=n] [-max-bytes=n] [-max-errors=n] [-warmup=rounds]
+    //                   [-allow-shutdown] [-allow-tcp-path]
+    // Without -socket or -port it listens on customlang.sock in the temporary directory.
+    // Stops on SIGTERM/Ctrl-C, or on a SHUTDOWN request with -allow-shutdown.
+    public static void main(String[] args) {
+        Lexers.Engine engine = Lexers.Engine.MANUAL;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int connections = 64;
+        int maxBytes = DEFAULT_MAX_REQUEST_BYTES;
+        int maxErrors = Integer.MAX_VALUE;
+        int warmup = 500;
+        String socket = null;
+        int port = -1;
+        boolean allowShutdown = false;
+        boolean allowTcpPath = false;
+        for (String arg : args) {
+            if (arg.startsWith("-socket=")) socket = arg.substring(8);
+            else if (arg.startsWith("-port=")) port = Integer.parseInt(arg.substring(6));
+            else if (arg.startsWith("-engine=")) engine = Lexers.Engine.parse(arg.substring(8));
+            else if (arg.startsWith("-threads=")) threads = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("-connections=")) connections = Integer.parseInt(arg.substring(13));
+            else if (arg.startsWith("-max-bytes=")) maxBytes = Integer.parseInt(arg.substring(11));
+            else if (arg.startsWith("-max-errors=")) maxErrors = Integer.parseInt(arg.substring(12));
+            else if (arg.startsWith("-warmup=")) warmup = Integer.parseInt(arg.substring(8));
+            else if (arg.equals("-allow-shutdown")) allowShutdown = true;
+            else if (arg.equals("-allow-tcp-path")) allowTcpPath = true;
+            else System.err.println("Ignoring unknown argument: " + arg);
+        }
+
+        ScanDaemon daemon = new ScanDaemon(engine, threads, connections)
+                .setMaxRequestBytes(maxBytes)
+                .setMaxErrors(maxErrors)
+                .setAllowShutdown(allowShutdown)
+                .setAllowTcpPath(allowTcpPath);
+        try {
+            if (port >= 0) {
+                daemon.bind(port);
+                System.out.println("Listening on 127.0.0.1:" + daemon.getPort());
+            } else {
+                Path path = socket != null ? Paths.get(socket) : Paths.get(System.getProperty("java.io.tmpdir"), "customlang.sock");
+                daemon.bind(path);
+                System.out.println("Listening on " + path);
+            }
+            daemon.warmUp(warmup);
+            Runtime.getRuntime().addShutdownHook(new Thread(daemon::shutdown, "scan-daemon-hook"));
+            daemon.serve();
+            daemon.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            System.err.println("Daemon error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package src;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR event committed by ScanMetrics for every finished scan, e.g.
+//   java -XX:StartFlightRecording=filename=scan.jfr src.ManualScanner big.lang
+//   jfr print --events customlang.Scan scan.jfr
+@Name("customlang.Scan")
+@Label("Scan")
+@Category("CustomLang")
+@Description("One input scanned to the end by a scanner engine")
+@StackTrace(false)
+class ScanEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Input Size")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Scan Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long scanTime;
+
+    @Label("Throughput")
+    @DataAmount(DataAmount.BYTES)
+    @Frequency
+    long bytesPerSecond;
+
+    @Label("Token Rate")
+    @Frequency
+    long tokensPerSecond;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Identifiers")
+    long identifiers;
+
+    @Label("Integer Literals")
+    long integers;
+
+    @Label("Float Literals")
+    long floats;
+
+    @Label("Boolean Literals")
+    long booleans;
+
+    @Label("Arithmetic Operators")
+    long operators;
+
+    @Label("Punctuators")
+    long punctuators;
+
+    @Label("Errors")
+    long errors;
+
+    @Label("Comments")
+    long comments;
+
+    @Label("Lines")
+    long lines;
+
+    @Label("Symbols")
+    int symbols;
+
+    @Label("Symbol Table Load Factor")
+    double loadFactor;
+
+    @Label("Buffer Refills")
+    @Description("Reader reads by Yylex.zzRefill; -1 when not counted")
+    long refills;
+}
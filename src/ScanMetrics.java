@@ -0,0 +1,188 @@
+package src;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.EventType;
+
+// Process-wide scanner counters, published over JMX. Scanners report once per finished scan,
+// never per token, so this costs nothing measurable; while disabled the counters are not even
+// touched. Enable with -Dcustomlang.metrics=true or enable(). Every finished scan also commits
+// a ScanEvent, which JFR records only while a recording is running.
+public final class ScanMetrics implements ScanMetricsMXBean {
+    public static final String OBJECT_NAME = "customlang:type=ScanMetrics";
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final ScanMetrics INSTANCE = new ScanMetrics();
+    // Asked before each scan's ScanEvent is created, so scans outside a recording allocate nothing
+    private static final EventType SCAN_EVENT = EventType.getEventType(ScanEvent.class);
+
+    private static volatile boolean enabled;
+    private static boolean registered;
+
+    static {
+        if (Boolean.getBoolean("customlang.metrics")) enable();
+    }
+
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder comments = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder[] tokensByType = new LongAdder[TYPES.length];
+    private volatile int lastSymbolTableSize;
+    private volatile double lastLoadFactor;
+
+    private ScanMetrics() {
+        for (int i = 0; i < tokensByType.length; i++) tokensByType[i] = new LongAdder();
+    }
+
+    public static ScanMetrics get() { return INSTANCE; }
+
+    // Starts counting and registers the MBean (once).
+    public static synchronized void enable() {
+        enabled = true;
+        if (registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another class loader's copy; counting still works locally
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+        registered = true;
+    }
+
+    public static void disable() { enabled = false; }
+    public static boolean enabled() { return enabled; }
+
+    // Called by the scanners when they reach the end of their input. refills < 0: not counted.
+    static void scanFinished(String engine, long startNanos, long chars, ScanStatistics statistics,
+                             ErrorHandler errorHandler, SymbolTable symbolTable, long refills) {
+        boolean counting = enabled;
+        boolean recording = SCAN_EVENT.isEnabled();
+        if (!counting && !recording) return;
+
+        long elapsed = System.nanoTime() - startNanos;
+        if (counting) INSTANCE.add(chars, elapsed, statistics, errorHandler, symbolTable, refills);
+        if (recording) {
+            ScanEvent event = new ScanEvent();
+            event.engine = engine;
+            event.bytes = chars;
+            event.scanTime = elapsed;
+            event.bytesPerSecond = perSecond(chars, elapsed);
+            event.tokensPerSecond = perSecond(statistics.getTotalTokens(), elapsed);
+            event.tokens = statistics.getTotalTokens();
+            event.identifiers = statistics.getTokenCount(TokenType.IDENTIFIER);
+            event.integers = statistics.getTokenCount(TokenType.INTEGER_LITERAL);
+            event.floats = statistics.getTokenCount(TokenType.FLOAT_LITERAL);
+            event.booleans = statistics.getTokenCount(TokenType.BOOLEAN_LITERAL);
+            event.operators = statistics.getTokenCount(TokenType.ARITHMETIC_OP);
+            event.punctuators = statistics.getTokenCount(TokenType.PUNCTUATOR);
+            event.errors = errorHandler.getErrorCount();
+            event.comments = statistics.getCommentsRemoved();
+            event.lines = statistics.getLines();
+            event.symbols = symbolTable.size();
+            event.loadFactor = symbolTable.loadFactor();
+            event.refills = refills;
+            event.commit();
+        }
+    }
+
+    private void add(long chars, long elapsed, ScanStatistics statistics, ErrorHandler errorHandler,
+                     SymbolTable symbolTable, long refillCount) {
+        scans.increment();
+        bytes.add(chars);
+        nanos.add(elapsed);
+        tokens.add(statistics.getTotalTokens());
+        for (TokenType type : TYPES) {
+            int count = statistics.getTokenCount(type);
+            if (count > 0) tokensByType[type.ordinal()].add(count);
+        }
+        errors.add(errorHandler.getErrorCount());
+        comments.add(statistics.getCommentsRemoved());
+        lines.add(statistics.getLines());
+        if (refillCount > 0) refills.add(refillCount);
+        lastSymbolTableSize = symbolTable.size();
+        lastLoadFactor = symbolTable.loadFactor();
+    }
+
+    private static long perSecond(long amount, long nanos) {
+        return nanos <= 0 ? 0 : (long) (amount * 1e9 / nanos);
+    }
+
+    @Override public boolean isEnabled() { return enabled; }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled) enable();
+        else disable();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] { scans, bytes, tokens, errors, comments, lines, refills, nanos }) adder.reset();
+        for (LongAdder adder : tokensByType) adder.reset();
+        lastSymbolTableSize = 0;
+        lastLoadFactor = 0;
+    }
+
+    @Override public long getScanCount() { return scans.sum(); }
+    @Override public long getBytesScanned() { return bytes.sum(); }
+    @Override public long getTokenCount() { return tokens.sum(); }
+    @Override public long getErrorCount() { return errors.sum(); }
+    @Override public long getCommentCount() { return comments.sum(); }
+    @Override public long getLineCount() { return lines.sum(); }
+    @Override public long getBufferRefillCount() { return refills.sum(); }
+    @Override public long getScanTimeNanos() { return nanos.sum(); }
+
+    @Override
+    public Map<String, Long> getTokenCountsByType() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (TokenType type : TYPES) {
+            if (type != TokenType.EOF && type != TokenType.ERROR) counts.put(type.name(), tokensByType[type.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    // rates over the time spent scanning (summed across threads)
+    @Override public double getBytesPerSecond() { return rate(bytes.sum()); }
+    @Override public double getTokensPerSecond() { return rate(tokens.sum()); }
+
+    @Override
+    public double getErrorRate() {
+        long total = tokens.sum();
+        return total == 0 ? 0 : (double) errors.sum() / total;
+    }
+
+    @Override public int getLastSymbolTableSize() { return lastSymbolTableSize; }
+    @Override public double getLastSymbolTableLoadFactor() { return lastLoadFactor; }
+
+    private double rate(long amount) {
+        long time = nanos.sum();
+        return time == 0 ? 0 : amount * 1e9 / time;
+    }
+
+    // Counts the bulk reads Yylex.zzRefill makes; see Yylex.counting.
+    static final class RefillCounter extends FilterReader {
+        long reads;
+
+        RefillCounter(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            reads++;
+            return super.read(buffer, offset, length);
+        }
+    }
+}
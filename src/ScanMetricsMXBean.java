@@ -0,0 +1,28 @@
+package src;
+import java.util.Map;
+
+// JMX view of ScanMetrics, registered as "customlang:type=ScanMetrics".
+public interface ScanMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    void reset();
+
+    long getScanCount();
+    long getBytesScanned();
+    long getTokenCount();
+    long getErrorCount();
+    long getCommentCount();
+    long getLineCount();
+    long getBufferRefillCount();
+    long getScanTimeNanos();
+    Map<String, Long> getTokenCountsByType();
+
+    double getBytesPerSecond();
+    double getTokensPerSecond();
+    // errors per token scanned
+    double getErrorRate();
+
+    // symbol table of the most recent scan
+    int getLastSymbolTableSize();
+    double getLastSymbolTableLoadFactor();
+}
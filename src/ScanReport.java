@@ -0,0 +1,62 @@
+package src;
+import java.io.PrintStream;
+
+// Human-readable report of a finished scan. Scanners never print; callers opt in here.
+public class ScanReport {
+    private final ScanStatistics statistics;
+    private final SymbolTable symbolTable;
+    private final ErrorHandler errorHandler;
+
+    public ScanReport(ScanStatistics statistics, SymbolTable symbolTable, ErrorHandler errorHandler) {
+        this.statistics = statistics;
+        this.symbolTable = symbolTable;
+        this.errorHandler = errorHandler;
+    }
+
+    public static ScanReport of(Lexer scanner) {
+        return new ScanReport(scanner.getStatistics(), scanner.getSymbolTable(), scanner.getErrorHandler());
+    }
+
+    public void print(PrintStream out) {
+        printStatistics(out);
+        printErrors(out);
+        printSymbolTable(out);
+    }
+
+    public void printStatistics(PrintStream out) {
+        out.println("\n--- Scanner Statistics ---");
+        out.println("Total Tokens: " + statistics.getTotalTokens());
+        out.println("Lines Processed: " + statistics.getLines());
+        out.println("Comments Removed: " + statistics.getCommentsRemoved());
+        for (TokenType t : TokenType.values()) {
+            if (t != TokenType.EOF && t != TokenType.ERROR && statistics.getTokenCount(t) > 0) {
+                out.println(String.format("%-15s : %d", t, statistics.getTokenCount(t)));
+            }
+        }
+        out.println("--------------------------\n");
+    }
+
+    public void printErrors(PrintStream out) {
+        if (!errorHandler.hasErrors()) return;
+        out.println("\n=== ERROR REPORT ===");
+        for (ErrorHandler.ErrorRecord e : errorHandler.getErrors()) {
+            out.println(e);
+        }
+        if (errorHandler.limitReached()) {
+            int more = errorHandler.getSuppressedCount();
+            out.println("... error limit reached, scanning stopped" + (more > 0 ? " (" + more + " more not shown)" : ""));
+        }
+        out.println("====================\n");
+    }
+
+    public void printSymbolTable(PrintStream out) {
+        out.println("\n--- Symbol Table ---");
+        out.printf("%-20s %-10s %-15s %-10s%n", "Name", "Type", "First Line", "Frequency");
+        for (int id = 0; id < symbolTable.size(); id++) {
+            if (symbolTable.getFrequency(id) == 0) continue; // edited away (IncrementalLexer)
+            out.printf("%-20s %-10s %-15d %-10d%n", 
+                symbolTable.getName(id), symbolTable.getType(id), symbolTable.getFirstLine(id), symbolTable.getFrequency(id));
+        }
+        out.println("--------------------\n");
+    }
+}
@@ -0,0 +1,55 @@
+package src;
+import java.util.Arrays;
+
+// Counters gathered while scanning; printing them is left to ScanReport.
+public class ScanStatistics {
+    private int totalTokens = 0;
+    private int lines = 0;
+    private int commentsRemoved = 0;
+    private final int[] tokenCounts = new int[TokenType.values().length];
+
+    void recordToken(TokenType type) {
+        totalTokens++;
+        tokenCounts[type.ordinal()]++;
+    }
+
+    void recordComment() {
+        commentsRemoved++;
+    }
+
+    // Bulk forms, for counters read back from TokenCache
+    void recordTokens(TokenType type, int count) {
+        totalTokens += count;
+        tokenCounts[type.ordinal()] += count;
+    }
+
+    void recordComments(int count) {
+        commentsRemoved += count;
+    }
+
+    void setLines(int lines) {
+        this.lines = lines;
+    }
+
+    // Back to zero, for a scanner reset onto new input
+    void clear() {
+        totalTokens = 0;
+        lines = 0;
+        commentsRemoved = 0;
+        Arrays.fill(tokenCounts, 0);
+    }
+
+    // Adds another scan's counters; the line count is left to the caller.
+    void merge(ScanStatistics other) {
+        totalTokens += other.totalTokens;
+        commentsRemoved += other.commentsRemoved;
+        for (int i = 0; i < tokenCounts.length; i++) {
+            tokenCounts[i] += other.tokenCounts[i];
+        }
+    }
+
+    public int getTotalTokens() { return totalTokens; }
+    public int getLines() { return lines; }
+    public int getCommentsRemoved() { return commentsRemoved; }
+    public int getTokenCount(TokenType type) { return tokenCounts[type.ordinal()]; }
+}
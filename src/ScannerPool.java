@@ -0,0 +1,56 @@
+package src;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Keeps idle ManualScanners for reuse (see ManualScanner.reset), so a batch or a server scans
+// file after file without rebuilding symbol tables, error lists and read buffers. Thread-safe.
+// A scanner belongs to whoever acquired it until it is released, and must not be touched after;
+// its results are cleared when the next user acquires it.
+public class ScannerPool {
+    private final BlockingQueue<ManualScanner> idle;
+
+    // At most maxIdle scanners are kept; the pool itself never blocks or limits acquire().
+    public ScannerPool(int maxIdle) {
+        if (maxIdle <= 0) throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    public ManualScanner acquire(CharSequence source) {
+        return take().reset(source);
+    }
+
+    public ManualScanner acquire(ByteBuffer bytes) {
+        return take().reset(bytes);
+    }
+
+    public ManualScanner acquire(Path path) throws IOException {
+        ManualScanner scanner = take();
+        try {
+            return scanner.reset(path);
+        } catch (IOException e) {
+            release(scanner);
+            throw e;
+        }
+    }
+
+    // Returns a scanner for reuse (or drops it when maxIdle are already idle). Its input is let
+    // go and its error settings go back to the defaults, so nothing carries over to the next user.
+    public void release(ManualScanner scanner) {
+        scanner.reset("");
+        ErrorHandler errors = scanner.getErrorHandler();
+        errors.setLimit(Integer.MAX_VALUE);
+        errors.setListener(null);
+        errors.setRetainErrors(true);
+        idle.offer(scanner);
+    }
+
+    public int idleCount() { return idle.size(); }
+
+    private ManualScanner take() {
+        ManualScanner scanner = idle.poll();
+        return scanner != null ? scanner : new ManualScanner();
+    }
+}
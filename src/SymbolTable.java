@@ -1,44 +1,170 @@
 package src;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+// Open-addressing identifier table that doubles as the interner: each distinct name is stored
+// once and gets a dense id (its insertion index), which tokens carry instead of comparing strings.
+// Per-name data lives in parallel arrays indexed by id, in first-appearance order.
+// Lookups compare against the source slice in place, so a String is only allocated the first
+// time a name is seen.
 public class SymbolTable {
-    private static class IdentifierInfo {
-        String name;
-        String type; 
-        int firstLine;
-        int frequency;
-
-        IdentifierInfo(String name, int firstLine) {
-            this.name = name;
-            this.type = "N/A"; 
-            this.firstLine = firstLine;
-            this.frequency = 1;
+    private static final String DEFAULT_TYPE = "N/A";
+
+    private String[] names;
+    private int[] hashes;
+    private int[] firstLines;
+    private int[] frequencies;
+    private int[] slots; // id + 1, or 0 for an empty slot
+    private int count = 0;
+
+    public SymbolTable() {
+        this(64);
+    }
+
+    public SymbolTable(int expectedIdentifiers) {
+        int capacity = Math.max(16, expectedIdentifiers);
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.firstLines = new int[capacity];
+        this.frequencies = new int[capacity];
+        this.slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+    }
+
+    public int addIdentifier(String name, int line) {
+        return addIdentifier(name, 0, name.length(), name.hashCode(), line);
+    }
+
+    // hash must be String.hashCode() of the slice (h = 31 * h + c), which the scanner
+    // accumulates while it consumes the identifier. Returns the identifier's id.
+    public int addIdentifier(CharSequence source, int start, int length, int hash, int line) {
+        if (count * 2 >= slots.length) rehash(slots.length * 2);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && regionEquals(names[id], source, start, length)) {
+                frequencies[id]++;
+                return id;
+            }
+            slot = (slot + 1) & mask;
         }
+        return insert(slot, source.subSequence(start, start + length).toString(), hash, line, 1);
     }
 
-    private Map<String, IdentifierInfo> table;
+    // Id of an already interned name, or -1. Ids are dense (0..size()-1) and stable, so later
+    // stages can key their own per-identifier arrays on them.
+    public int lookup(CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) hash = 31 * hash + name.charAt(i);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && regionEquals(names[id], name, 0, name.length())) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
 
-    public SymbolTable() {
-        this.table = new HashMap<>();
+    // Folds in a table built from a later part of the same input, shifting its lines by lineOffset.
+    // Returns the mapping from other's ids to ids in this table.
+    public int[] merge(SymbolTable other, int lineOffset) {
+        int[] idMap = new int[other.count];
+        for (int i = 0; i < other.count; i++) {
+            String name = other.names[i];
+            int hash = other.hashes[i];
+            if (count * 2 >= slots.length) rehash(slots.length * 2);
+            int mask = slots.length - 1;
+            int slot = mix(hash) & mask;
+            int entry;
+            boolean found = false;
+            while ((entry = slots[slot]) != 0) {
+                int id = entry - 1;
+                if (hashes[id] == hash && names[id].equals(name)) {
+                    if (frequencies[id] == 0) firstLines[id] = other.firstLines[i] + lineOffset; // revived
+                    frequencies[id] += other.frequencies[i];
+                    idMap[i] = id;
+                    found = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!found) idMap[i] = insert(slot, name, hash, other.firstLines[i] + lineOffset, other.frequencies[i]);
+        }
+        return idMap;
+    }
+
+    // Incremental maintenance (IncrementalLexer): frequencies may drop to 0; ids are never reused.
+    void removeOccurrence(int id) { frequencies[check(id)]--; }
+    void setFirstLine(int id, int line) { firstLines[check(id)] = line; }
+
+    // Re-creates an entry read back from TokenCache; entries must be restored in id order.
+    int restore(String name, int firstLine, int frequency) {
+        int id = addIdentifier(name, firstLine);
+        frequencies[id] = frequency;
+        return id;
+    }
+
+    // Forgets every name but keeps the arrays, for a scanner reset onto new input; ids restart at 0.
+    void clear() {
+        Arrays.fill(names, 0, count, null);
+        Arrays.fill(slots, 0);
+        count = 0;
+    }
+
+    public int size() { return count; }
+    public String getName(int id) { return names[check(id)]; }
+    public String getType(int id) { check(id); return DEFAULT_TYPE; }
+    public int getFirstLine(int id) { return firstLines[check(id)]; }
+    public int getFrequency(int id) { return frequencies[check(id)]; }
+
+    // Number of used slots over table size
+    public double loadFactor() { return (double) count / slots.length; }
+
+    private int insert(int slot, String name, int hash, int line, int frequency) {
+        if (count == names.length) {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            firstLines = Arrays.copyOf(firstLines, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        int id = count++;
+        names[id] = name;
+        hashes[id] = hash;
+        firstLines[id] = line;
+        frequencies[id] = frequency;
+        slots[slot] = id + 1;
+        return id;
     }
 
-    public void addIdentifier(String name, int line) {
-        if (table.containsKey(name)) {
-            IdentifierInfo info = table.get(name);
-            info.frequency++;
-        } else {
-            table.put(name, new IdentifierInfo(name, line));
+    private void rehash(int slotCount) {
+        int[] newSlots = new int[slotCount];
+        int mask = slotCount - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (newSlots[slot] != 0) slot = (slot + 1) & mask;
+            newSlots[slot] = id + 1;
         }
+        slots = newSlots;
+    }
+
+    private int check(int id) {
+        if (id < 0 || id >= count) throw new IndexOutOfBoundsException("id " + id + ", size " + count);
+        return id;
     }
-    
-    public void printTable() {
-        System.out.println("\n--- Symbol Table ---");
-        System.out.printf("%-20s %-10s %-15s %-10s%n", "Name", "Type", "First Line", "Frequency");
-        for (IdentifierInfo info : table.values()) {
-            System.out.printf("%-20s %-10s %-15d %-10d%n", 
-                info.name, info.type, info.firstLine, info.frequency);
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean regionEquals(String name, CharSequence source, int start, int length) {
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != source.charAt(start + i)) return false;
         }
-        System.out.println("--------------------\n");
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,343 @@
+package src;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Table-driven version of ManualScanner: a 128-entry character-class map and a flat transition
+// table drive one loop with maximal munch, instead of chained ifs and a scan method per token
+// kind. Tokens, errors, symbols and statistics are identical to ManualScanner's.
+public class TableScanner implements Lexer {
+    // Character classes
+    private static final int C_OTHER = 0, C_SPACE = 1, C_LF = 2, C_CR = 3, C_HASH = 4, C_DIGIT = 5,
+            C_UPPER = 6, C_UPPER_E = 7, C_LOWER = 8, C_LOWER_E = 9, C_SIGN = 10, C_DOT = 11,
+            C_OPERATOR = 12, C_PUNCTUATOR = 13;
+    private static final int CLASS_COUNT = 14;
+
+    // States; S_INT_DOT ("12." waiting for a digit) is the only non-accepting one after S_START
+    private static final int S_DEAD = 0, S_START = 1, S_SIGN = 2, S_INT = 3, S_INT_DOT = 4, S_FRAC = 5,
+            S_MALFORMED = 6, S_EXP = 7, S_EXP_SIGN = 8, S_EXP_DIGITS = 9, S_IDENT = 10, S_WORD = 11,
+            S_OPERATOR = 12, S_PUNCTUATOR = 13, S_HASH = 14, S_COMMENT = 15, S_INVALID = 16;
+    private static final int STATE_COUNT = 17;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final byte[] NEXT = new byte[STATE_COUNT * CLASS_COUNT];
+    private static final boolean[] ACCEPTS = new boolean[STATE_COUNT];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            int cls = C_OTHER;
+            if (c == '\n') cls = C_LF;
+            else if (c == '\r') cls = C_CR;
+            else if (Character.isWhitespace(c)) cls = C_SPACE;
+            else if (c == '#') cls = C_HASH;
+            else if (c >= '0' && c <= '9') cls = C_DIGIT;
+            else if (c == 'E') cls = C_UPPER_E;
+            else if (c >= 'A' && c <= 'Z') cls = C_UPPER;
+            else if (c == 'e') cls = C_LOWER_E;
+            else if (c >= 'a' && c <= 'z') cls = C_LOWER;
+            else if (c == '+' || c == '-') cls = C_SIGN;
+            else if (c == '.') cls = C_DOT;
+            else if (c == '*' || c == '/' || c == '%') cls = C_OPERATOR;
+            else if ("()[]{};:,".indexOf(c) != -1) cls = C_PUNCTUATOR;
+            CHAR_CLASS[c] = (byte) cls;
+        }
+
+        for (int cls = 0; cls < CLASS_COUNT; cls++) {
+            move(S_START, cls, S_INVALID);
+            if (cls != C_LF && cls != C_CR) move(S_COMMENT, cls, S_COMMENT);
+        }
+        move(S_START, C_DIGIT, S_INT);
+        move(S_START, C_SIGN, S_SIGN);
+        move(S_START, C_UPPER, S_IDENT);
+        move(S_START, C_UPPER_E, S_IDENT);
+        move(S_START, C_LOWER, S_WORD);
+        move(S_START, C_LOWER_E, S_WORD);
+        move(S_START, C_OPERATOR, S_OPERATOR);
+        move(S_START, C_PUNCTUATOR, S_PUNCTUATOR);
+        move(S_START, C_HASH, S_HASH);
+
+        move(S_SIGN, C_DIGIT, S_INT);
+        move(S_INT, C_DIGIT, S_INT);
+        move(S_INT, C_DOT, S_INT_DOT);
+        move(S_INT_DOT, C_DIGIT, S_FRAC);
+        move(S_FRAC, C_DIGIT, S_FRAC);
+        move(S_FRAC, C_DOT, S_MALFORMED);
+        move(S_MALFORMED, C_DIGIT, S_MALFORMED);
+        for (int from : new int[] { S_INT, S_FRAC, S_MALFORMED }) {
+            move(from, C_LOWER_E, S_EXP);
+            move(from, C_UPPER_E, S_EXP);
+        }
+        move(S_EXP, C_SIGN, S_EXP_SIGN);
+        move(S_EXP, C_DIGIT, S_EXP_DIGITS);
+        move(S_EXP_SIGN, C_DIGIT, S_EXP_DIGITS);
+        move(S_EXP_DIGITS, C_DIGIT, S_EXP_DIGITS);
+
+        move(S_IDENT, C_LOWER, S_IDENT);
+        move(S_IDENT, C_LOWER_E, S_IDENT);
+        move(S_IDENT, C_DIGIT, S_IDENT);
+        move(S_WORD, C_LOWER, S_WORD);
+        move(S_WORD, C_LOWER_E, S_WORD);
+        move(S_HASH, C_HASH, S_COMMENT);
+
+        for (int s = S_SIGN; s < STATE_COUNT; s++) ACCEPTS[s] = s != S_INT_DOT;
+    }
+
+    private static void move(int from, int cls, int to) {
+        NEXT[from * CLASS_COUNT + cls] = (byte) to;
+    }
+
+    private final CharSequence source;
+    // The source again when it is a String or a byte view, so the DFA reads chars through the
+    // concrete class (String.charAt is intrinsic) instead of the CharSequence interface.
+    private final String text;
+    private final AsciiCharSequence bytes;
+    private int pos;
+    private final int end;
+    private int line = 1;
+    private int col = 1;
+    private int tokenStart;
+    private int tokenLength;
+    private int tokenLine;
+    private int tokenCol;
+    private int tokenSymbol = -1;
+    private long tokenValue;
+    private final NumberDecoder number = new NumberDecoder();
+    private long startNanos; // set when the first token is asked for, as in every engine
+    private boolean started = false;
+    private boolean finished = false;
+
+    private final ScanStatistics statistics = new ScanStatistics();
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    public TableScanner(String filePath) throws IOException {
+        this((CharSequence) new String(Files.readAllBytes(Paths.get(filePath))));
+    }
+
+    private TableScanner(CharSequence source) {
+        this.source = source;
+        this.text = source instanceof String ? (String) source : null;
+        this.bytes = source instanceof AsciiCharSequence ? (AsciiCharSequence) source : null;
+        this.end = source.length();
+    }
+
+    public static TableScanner fromSource(CharSequence source) {
+        return new TableScanner(source);
+    }
+
+    // Bytes >= 0x80 read as Latin-1, as in ManualScanner.fromBytes.
+    public static TableScanner fromBytes(ByteBuffer bytes) {
+        return new TableScanner(new AsciiCharSequence(bytes));
+    }
+
+    public static TableScanner mapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return fromBytes(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public <S extends TokenSink> S scan(S sink) {
+        TokenType type;
+        while ((type = scanNext()) != TokenType.EOF) {
+            if (type == TokenType.IDENTIFIER) {
+                sink.identifier(tokenStart, tokenLength, tokenLine, tokenCol, source, tokenStart, tokenSymbol);
+            } else if (type == TokenType.INTEGER_LITERAL || type == TokenType.FLOAT_LITERAL) {
+                sink.number(type, tokenStart, tokenLength, tokenLine, tokenCol, source, tokenStart, tokenValue);
+            } else {
+                sink.token(type, tokenStart, tokenLength, tokenLine, tokenCol, source, tokenStart);
+            }
+        }
+        sink.flush();
+        return sink;
+    }
+
+    public TokenBuffer scanToBuffer() {
+        return scan(new TokenBuffer(source));
+    }
+
+    @Override
+    public Token nextToken() {
+        TokenType type = scanNext();
+        if (type == TokenType.EOF) return new Token(TokenType.EOF, "", line, col, -1, pos);
+        if (type == TokenType.IDENTIFIER) {
+            return new Token(type, symbolTable.getName(tokenSymbol), tokenLine, tokenCol, tokenSymbol, tokenStart);
+        }
+        String fixed = Token.fixedLexeme(type, source, tokenStart, tokenLength);
+        return new Token(type, fixed != null ? fixed : lexeme(tokenStart, tokenStart + tokenLength), tokenLine, tokenCol, -1, tokenStart);
+    }
+
+    private TokenType scanNext() {
+        if (!started) {
+            started = true;
+            startNanos = System.nanoTime();
+        }
+        final byte[] next = NEXT;
+        // stops early once the error handler's limit is reached
+        while (pos < end && !errorHandler.limitReached()) {
+            char c = at(pos);
+            int cls = c < 128 ? CHAR_CLASS[c] : (Character.isWhitespace(c) ? C_SPACE : C_OTHER);
+
+            // Whitespace never starts a token; \r\n counts as one line break
+            if (cls == C_SPACE) { pos++; col++; continue; }
+            if (cls == C_LF) { pos++; line++; col = 1; continue; }
+            if (cls == C_CR) {
+                pos++;
+                if (pos < end && at(pos) == '\n') col++;
+                else { line++; col = 1; }
+                continue;
+            }
+
+            int start = pos;
+            int state = S_START;
+            int accepted = S_DEAD;
+            int acceptEnd = start;
+            // String.hashCode of the chars taken so far, for the symbol table if this is an
+            // identifier (which accepts every char it takes)
+            int hash = 0;
+            int secondDot = -1;
+            while (true) {
+                int target = next[state * CLASS_COUNT + cls];
+                if (target == S_DEAD) break;
+                if (target == S_MALFORMED && state == S_FRAC) secondDot = pos;
+                state = target;
+                hash = 31 * hash + c;
+                pos++;
+                if (ACCEPTS[state]) { accepted = state; acceptEnd = pos; }
+                if (pos >= end) break;
+                c = at(pos);
+                cls = c < 128 ? CHAR_CLASS[c] : (Character.isWhitespace(c) ? C_SPACE : C_OTHER);
+            }
+
+            pos = acceptEnd;
+            tokenStart = start;
+            tokenLength = acceptEnd - start;
+            tokenLine = line;
+            tokenCol = col;
+            tokenSymbol = -1;
+            col += tokenLength;
+
+            TokenType type;
+            switch (accepted) {
+                case S_SIGN: case S_OPERATOR:
+                    type = TokenType.ARITHMETIC_OP;
+                    break;
+                case S_PUNCTUATOR:
+                    type = TokenType.PUNCTUATOR;
+                    break;
+                case S_INT:
+                    // "12." stopped in S_INT_DOT: the dot is left for the next token
+                    if (state == S_INT_DOT) {
+                        errorHandler.addError(ErrorCode.MISSING_FRACTION_DIGITS, line, col, source, acceptEnd, 1);
+                    }
+                    number.decode(source, start, acceptEnd);
+                    if (number.overflows()) {
+                        errorHandler.addError(ErrorCode.INTEGER_OUT_OF_RANGE, line, tokenCol, source, start, acceptEnd - start);
+                    }
+                    tokenValue = number.longValue();
+                    type = TokenType.INTEGER_LITERAL;
+                    break;
+                case S_FRAC: case S_MALFORMED: case S_EXP: case S_EXP_SIGN: case S_EXP_DIGITS:
+                    if (secondDot >= 0) reportExtraDecimalPoint(start, secondDot, acceptEnd);
+                    number.decode(source, start, acceptEnd);
+                    tokenValue = Double.doubleToRawLongBits(number.doubleValue(source, start, acceptEnd));
+                    type = TokenType.FLOAT_LITERAL;
+                    break;
+                case S_IDENT:
+                    type = identifier(start, acceptEnd, hash);
+                    break;
+                case S_WORD:
+                    type = word(start, acceptEnd);
+                    break;
+                case S_COMMENT:
+                    statistics.recordComment();
+                    continue;
+                default: // S_HASH, S_INVALID: one character outside the alphabet
+                    errorHandler.addError(ErrorCode.INVALID_CHAR, line, tokenCol, source, start, 1);
+                    continue;
+            }
+
+            if (type != TokenType.ERROR) {
+                statistics.recordToken(type);
+                return type;
+            }
+        }
+        if (!finished) {
+            finished = true;
+            ScanMetrics.scanFinished("table", startNanos, end, getStatistics(), errorHandler, symbolTable, -1);
+        }
+        return TokenType.EOF;
+    }
+
+    // "1.2.3": the second '.' and its digits are part of the float but reported, like ManualScanner.
+    // The DFA noted where that '.' is, so only the digits after it are looked at again.
+    private void reportExtraDecimalPoint(int start, int dot, int end) {
+        int i = dot + 1;
+        while (i < end && isDigit(at(i))) i++;
+        errorHandler.addError(ErrorCode.MULTIPLE_DECIMAL_POINTS, tokenLine, tokenCol + (i - start), source, dot, i - dot);
+    }
+
+    // hash is the String.hashCode of the identifier, built by the DFA as it took the chars.
+    private TokenType identifier(int start, int end, int hash) {
+        if (end - start > 31) {
+            errorHandler.addError(ErrorCode.IDENTIFIER_TOO_LONG, line, tokenCol, source, start, 10);
+            return TokenType.ERROR;
+        }
+        tokenSymbol = symbolTable.addIdentifier(source, start, end - start, hash, line);
+        return TokenType.IDENTIFIER;
+    }
+
+    private TokenType word(int start, int end) {
+        if (matches(start, end, "true") || matches(start, end, "false")) {
+            return TokenType.BOOLEAN_LITERAL;
+        }
+        errorHandler.addError(ErrorCode.LOWERCASE_IDENTIFIER, line, tokenCol, source, start, end - start);
+        return TokenType.ERROR;
+    }
+
+    private boolean matches(int start, int end, String word) {
+        if (end - start != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (at(start + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private char at(int i) {
+        if (text != null) return text.charAt(i);
+        if (bytes != null) return bytes.charAt(i);
+        return source.charAt(i);
+    }
+
+    private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+    private String lexeme(int from, int to) { return source.subSequence(from, to).toString(); }
+
+    public ScanStatistics getStatistics() {
+        statistics.setLines(line);
+        return statistics;
+    }
+
+    public SymbolTable getSymbolTable() { return symbolTable; }
+    public ErrorHandler getErrorHandler() { return errorHandler; }
+
+    // Usage: TableScanner [-q] [file]   (same output as ManualScanner)
+    public static void main(String[] args) {
+        try {
+            String file = "tests/test5.lang";
+            boolean quiet = false;
+            for (String arg : args) {
+                if (arg.equals("-q")) quiet = true;
+                else file = arg;
+            }
+
+            TableScanner scanner = new TableScanner(file);
+            scanner.scan(quiet ? TokenSink.NONE : new TextTokenSink(System.out));
+            ScanReport.of(scanner).print(System.out);
+        } catch (IOException e) {
+            System.err.println("File error: " + e.getMessage());
+        }
+    }
+}
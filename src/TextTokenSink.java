@@ -0,0 +1,57 @@
+package src;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// Writes tokens in the Token.toString() format, building lines by hand instead of String.format
+// and handing them to the writer in large chunks.
+public class TextTokenSink implements TokenSink {
+    private static final int FLUSH_THRESHOLD = 8192;
+    private static final String[] TYPE_NAMES = new String[TokenType.values().length];
+    private static final String NEWLINE = System.lineSeparator();
+
+    static {
+        for (TokenType t : TokenType.values()) TYPE_NAMES[t.ordinal()] = t.name();
+    }
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+
+    public TextTokenSink(OutputStream out) {
+        this(new OutputStreamWriter(out));
+    }
+
+    public TextTokenSink(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void token(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart) {
+        buffer.append('<').append(TYPE_NAMES[type.ordinal()]).append(", \"")
+              .append(text, textStart, textStart + length)
+              .append("\", Line: ").append(line)
+              .append(", Col: ").append(column).append('>').append(NEWLINE);
+        if (buffer.length() >= FLUSH_THRESHOLD) drain();
+    }
+
+    @Override
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() {
+        try {
+            out.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+}
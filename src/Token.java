@@ -1,24 +1,60 @@
 package src;
 public class Token {
+    private static final String[] SINGLE_CHAR_LEXEMES = new String[128];
+    static {
+        for (char c : "+-*/%(){}[],;:".toCharArray()) SINGLE_CHAR_LEXEMES[c] = String.valueOf(c);
+    }
+
     private TokenType type;
     private String lexeme;
     private int line;
     private int column;
+    private int symbolId;
+    private int offset;
 
     public Token(TokenType type, String lexeme, int line, int column) {
+        this(type, lexeme, line, column, -1);
+    }
+
+    // symbolId is the identifier's id in the scanner's SymbolTable, or -1 for other tokens
+    public Token(TokenType type, String lexeme, int line, int column, int symbolId) {
+        this(type, lexeme, line, column, symbolId, -1);
+    }
+
+    // offset is where the lexeme starts in the scanned text (in chars), or -1 if unknown
+    public Token(TokenType type, String lexeme, int line, int column, int symbolId, int offset) {
         this.type = type;
         this.lexeme = lexeme;
         this.line = line;
         this.column = column;
+        this.symbolId = symbolId;
+        this.offset = offset;
+    }
+
+    // Operators, punctuators and booleans only ever have a handful of spellings, so their Tokens
+    // share one String per spelling; null for the other types, whose text has to be copied.
+    static String fixedLexeme(TokenType type, CharSequence text, int start, int length) {
+        switch (type) {
+            case BOOLEAN_LITERAL:
+                return length == 4 ? "true" : "false";
+            case ARITHMETIC_OP:
+            case PUNCTUATOR:
+                char c = text.charAt(start);
+                return c < SINGLE_CHAR_LEXEMES.length ? SINGLE_CHAR_LEXEMES[c] : null;
+            default:
+                return null;
+        }
     }
 
     public TokenType getType() { return type; }
     public String getLexeme() { return lexeme; }
     public int getLine() { return line; }
+    public int getColumn() { return column; }
+    public int getSymbolId() { return symbolId; }
+    public int getOffset() { return offset; }
     
     @Override
     public String toString() {
-        return String.format("<%s, \"%s\", Line: %d, Col: %d>", 
-                             type, lexeme, line, column);
+        return "<" + type + ", \"" + lexeme + "\", Line: " + line + ", Col: " + column + ">";
     }
 }
\ No newline at end of file
@@ -0,0 +1,410 @@
+package src;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// Packed token storage: one primitive array per field instead of one Token object per lexeme.
+// Lexemes are sliced out of the source only when asked for; literal values are stored decoded.
+// With a LineIndex, lines and columns aren't stored either but looked up from the offsets;
+// the operations that shift lines (append, splice) first switch to stored positions.
+// A deserialized buffer reads its columns straight from the serialized bytes (a mapped
+// TokenCache entry) and copies them into arrays only if it is changed.
+public class TokenBuffer implements TokenSink {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private CharSequence source;
+    private LineIndex lineIndex; // when set, lines and columns are null
+    private int[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    private int[] symbols;
+    private long[] values;
+    private int size = 0;
+    // when set, the columns above are null: the int columns are here one after another, in
+    // field order, size entries each
+    private IntBuffer mapped;
+    private LongBuffer mappedValues;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, 256);
+    }
+
+    public TokenBuffer(CharSequence source, int initialCapacity) {
+        this.source = source;
+        int capacity = Math.max(initialCapacity, 16);
+        this.types = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.symbols = new int[capacity];
+        this.values = new long[capacity];
+    }
+
+    private TokenBuffer(CharSequence source, IntBuffer mapped, LongBuffer mappedValues, int size) {
+        this.source = source;
+        this.mapped = mapped;
+        this.mappedValues = mappedValues;
+        this.size = size;
+    }
+
+    // Positions are resolved through lineIndex, which must cover the source's line breaks.
+    public TokenBuffer(CharSequence source, LineIndex lineIndex) {
+        this(source, 256);
+        this.lineIndex = lineIndex;
+        this.lines = null;
+        this.columns = null;
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column) {
+        add(type, start, length, line, column, -1);
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column, int symbolId) {
+        add(type, start, length, line, column, symbolId, 0);
+    }
+
+    // value: see TokenSink.number
+    public void add(TokenType type, int start, int length, int line, int column, int symbolId, long value) {
+        unmap();
+        if (size == types.length) grow();
+        types[size] = type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        if (lineIndex == null) {
+            lines[size] = line;
+            columns[size] = column;
+        }
+        symbols[size] = symbolId;
+        values[size] = value;
+        size++;
+    }
+
+    @Override
+    public void token(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart) {
+        add(type, offset, length, line, column, -1);
+    }
+
+    @Override
+    public void identifier(int offset, int length, int line, int column, CharSequence text, int textStart, int symbolId) {
+        add(TokenType.IDENTIFIER, offset, length, line, column, symbolId);
+    }
+
+    @Override
+    public void number(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart, long value) {
+        add(type, offset, length, line, column, -1, value);
+    }
+
+    // Appends all of other's tokens, shifting their line numbers by lineOffset and mapping
+    // their symbol ids through symbolMap (as returned by SymbolTable.merge).
+    public void append(TokenBuffer other, int lineOffset, int[] symbolMap) {
+        unmap();
+        other.unmap();
+        storePositions();
+        other.storePositions();
+        int count = other.size;
+        ensureCapacity(size + count);
+        System.arraycopy(other.types, 0, types, size, count);
+        System.arraycopy(other.starts, 0, starts, size, count);
+        System.arraycopy(other.lengths, 0, lengths, size, count);
+        System.arraycopy(other.columns, 0, columns, size, count);
+        System.arraycopy(other.values, 0, values, size, count);
+        for (int i = 0; i < count; i++) {
+            lines[size + i] = other.lines[i] + lineOffset;
+            int symbol = other.symbols[i];
+            symbols[size + i] = symbol < 0 ? symbol : symbolMap[symbol];
+        }
+        size += count;
+    }
+
+    // Replaces tokens [from, to) with replacement's (symbol ids mapped through symbolMap) and
+    // shifts the offsets and lines of the tokens after them. Used by IncrementalLexer after an
+    // edit; newSource is the edited text.
+    void splice(int from, int to, TokenBuffer replacement, int[] symbolMap,
+                int offsetDelta, int lineDelta, CharSequence newSource) {
+        unmap();
+        replacement.unmap();
+        storePositions();
+        replacement.storePositions();
+        int count = replacement.size;
+        int tail = size - to;
+        int newSize = from + count + tail;
+        ensureCapacity(newSize);
+        int newTail = from + count;
+        System.arraycopy(types, to, types, newTail, tail);
+        System.arraycopy(starts, to, starts, newTail, tail);
+        System.arraycopy(lengths, to, lengths, newTail, tail);
+        System.arraycopy(lines, to, lines, newTail, tail);
+        System.arraycopy(columns, to, columns, newTail, tail);
+        System.arraycopy(symbols, to, symbols, newTail, tail);
+        System.arraycopy(values, to, values, newTail, tail);
+        for (int i = newTail; i < newSize; i++) {
+            starts[i] += offsetDelta;
+            lines[i] += lineDelta;
+        }
+        System.arraycopy(replacement.types, 0, types, from, count);
+        System.arraycopy(replacement.starts, 0, starts, from, count);
+        System.arraycopy(replacement.lengths, 0, lengths, from, count);
+        System.arraycopy(replacement.lines, 0, lines, from, count);
+        System.arraycopy(replacement.columns, 0, columns, from, count);
+        System.arraycopy(replacement.values, 0, values, from, count);
+        for (int i = 0; i < count; i++) {
+            int symbol = replacement.symbols[i];
+            symbols[from + i] = symbol < 0 ? symbol : symbolMap[symbol];
+        }
+        size = newSize;
+        source = newSource;
+    }
+
+    // Index of the first token starting at or after offset (size() if none); binary search.
+    public int indexAtOrAfter(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (start(mid) < offset) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Index of the token covering offset (start <= offset < start + length), or -1 when offset
+    // is in whitespace, a comment or outside the scanned text.
+    public int indexAt(int offset) {
+        int index = indexEndingAfter(offset);
+        return index < size && start(index) <= offset ? index : -1;
+    }
+
+    // Index of the first token that ends after offset (size() if none): the one covering it,
+    // else the next one.
+    public int indexEndingAfter(int offset) {
+        int index = indexAtOrAfter(offset);
+        return index > 0 && offset - start(index - 1) < length(index - 1) ? index - 1 : index;
+    }
+
+    // Walks the tokens overlapping the chars [from, to); together, indexEndingAfter(from) and
+    // indexAtOrAfter(to) give the same range as indexes.
+    public Cursor cursor(int from, int to) {
+        int first = indexEndingAfter(from);
+        return new Cursor(first, from < to ? Math.max(first, indexAtOrAfter(to)) : first);
+    }
+
+    // Replays every token into a sink, e.g. a TextTokenSink for printing.
+    public <S extends TokenSink> S writeTo(S sink) {
+        for (int i = 0; i < size; i++) {
+            int start = start(i);
+            if (symbol(i) >= 0) {
+                sink.identifier(start, length(i), line(i), column(i), source, start, symbol(i));
+            } else if (isNumber(type(i))) {
+                sink.number(TYPES[type(i)], start, length(i), line(i), column(i), source, start, value(i));
+            } else {
+                sink.token(TYPES[type(i)], start, length(i), line(i), column(i), source, start);
+            }
+        }
+        sink.flush();
+        return sink;
+    }
+
+    // Serialized form (TokenCache): the size, then each column as one block, so a deserialized
+    // buffer can read the columns in place.
+    void serialize(DataOutput out) throws IOException {
+        unmap();
+        storePositions();
+        out.writeInt(size);
+        for (int[] column : new int[][] { types, starts, lengths, lines, columns, symbols }) {
+            for (int i = 0; i < size; i++) out.writeInt(column[i]);
+        }
+        for (int i = 0; i < size; i++) out.writeLong(values[i]);
+    }
+
+    // A view of what serialize wrote, advancing in past it; nothing is copied, so in must stay
+    // unchanged while the buffer is used. The source must be the text that was scanned.
+    // A size the remaining bytes can't hold (a damaged entry) throws IllegalStateException.
+    static TokenBuffer deserialize(ByteBuffer in, CharSequence source) {
+        int size = in.getInt();
+        if (size < 0 || size > in.remaining() / (6 * Integer.BYTES + Long.BYTES)) {
+            throw new IllegalStateException("Corrupt token buffer: " + size + " tokens in " + in.remaining() + " bytes");
+        }
+        int intBytes = 6 * size * Integer.BYTES;
+        IntBuffer mapped = in.slice(in.position(), intBytes).asIntBuffer();
+        in.position(in.position() + intBytes);
+        LongBuffer mappedValues = in.slice(in.position(), size * Long.BYTES).asLongBuffer();
+        in.position(in.position() + size * Long.BYTES);
+        return new TokenBuffer(source, mapped, mappedValues, size);
+    }
+
+    // Copies mapped columns into arrays before the buffer is changed.
+    private void unmap() {
+        if (mapped == null) return;
+        int capacity = Math.max(size, 16);
+        types = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+        symbols = new int[capacity];
+        values = new long[capacity];
+        int[][] intColumns = { types, starts, lengths, lines, columns, symbols };
+        for (int c = 0; c < intColumns.length; c++) mapped.get(c * size, intColumns[c], 0, size);
+        mappedValues.get(0, values, 0, size);
+        mapped = null;
+        mappedValues = null;
+    }
+
+    private int type(int index) { return mapped == null ? types[index] : mapped.get(index); }
+    private int start(int index) { return mapped == null ? starts[index] : mapped.get(size + index); }
+    private int length(int index) { return mapped == null ? lengths[index] : mapped.get(2 * size + index); }
+    private int symbol(int index) { return mapped == null ? symbols[index] : mapped.get(5 * size + index); }
+    private long value(int index) { return mapped == null ? values[index] : mappedValues.get(index); }
+
+    // Resolves every position through the line index and keeps them from now on.
+    private void storePositions() {
+        if (lineIndex == null) return;
+        lines = new int[types.length];
+        columns = new int[types.length];
+        for (int i = 0; i < size; i++) {
+            lines[i] = lineIndex.lineOf(starts[i]);
+            columns[i] = lineIndex.columnOf(starts[i]);
+        }
+        lineIndex = null;
+    }
+
+    private int line(int index) {
+        if (mapped != null) return mapped.get(3 * size + index);
+        return lineIndex == null ? lines[index] : lineIndex.lineOf(starts[index]);
+    }
+
+    private int column(int index) {
+        if (mapped != null) return mapped.get(4 * size + index);
+        return lineIndex == null ? columns[index] : lineIndex.columnOf(starts[index]);
+    }
+
+    private void grow() {
+        ensureCapacity(types.length * 2);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= types.length) return;
+        int capacity = Math.max(needed, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        if (lineIndex == null) {
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        symbols = Arrays.copyOf(symbols, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private static boolean isNumber(int type) {
+        return type == TokenType.INTEGER_LITERAL.ordinal() || type == TokenType.FLOAT_LITERAL.ordinal();
+    }
+
+    public int size() { return size; }
+    public CharSequence getSource() { return source; }
+    public void clear() {
+        size = 0;
+        unmap();
+    }
+
+    // Empties the buffer for tokens of another source, keeping the arrays.
+    public TokenBuffer reset(CharSequence source) {
+        return reset(source, null);
+    }
+
+    // Same, with positions looked up in lineIndex (or stored, if it is null).
+    public TokenBuffer reset(CharSequence source, LineIndex lineIndex) {
+        size = 0;
+        unmap();
+        this.source = source;
+        this.lineIndex = lineIndex;
+        if (lineIndex != null) {
+            lines = null;
+            columns = null;
+        } else if (lines == null) {
+            lines = new int[types.length];
+            columns = new int[types.length];
+        }
+        size = 0;
+        return this;
+    }
+
+    public TokenType getType(int index) { return TYPES[type(check(index))]; }
+    public int getStart(int index) { return start(check(index)); }
+    public int getLength(int index) { return length(check(index)); }
+    public int getLine(int index) { return line(check(index)); }
+    public int getColumn(int index) { return column(check(index)); }
+    public int getSymbolId(int index) { return symbol(check(index)); }
+
+    // Decoded literal values; an integer beyond the long range saturates (and is reported as an error).
+    public long getIntegerValue(int index) {
+        long value = value(check(index));
+        return type(index) == TokenType.FLOAT_LITERAL.ordinal() ? (long) Double.longBitsToDouble(value) : value;
+    }
+
+    public double getFloatValue(int index) {
+        long value = value(check(index));
+        return type(index) == TokenType.FLOAT_LITERAL.ordinal() ? Double.longBitsToDouble(value) : value;
+    }
+
+    public String getLexeme(int index) {
+        int start = start(check(index));
+        return source.subSequence(start, start + length(index)).toString();
+    }
+
+    public Token toToken(int index) {
+        return new Token(getType(index), getLexeme(index), line(index), column(index), symbol(index), start(index));
+    }
+
+    public Cursor cursor() {
+        return new Cursor(0, -1);
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        return index;
+    }
+
+    // Flyweight view with the same getters as Token; one cursor walks the whole buffer, or a range of it.
+    public class Cursor {
+        private int index;
+        private final int end; // -1: up to the current size
+
+        Cursor(int first, int end) {
+            this.index = first - 1;
+            this.end = end;
+        }
+
+        public boolean next() {
+            int limit = end < 0 ? size : Math.min(end, size);
+            if (index < limit) index++;
+            return index < limit;
+        }
+
+        public Cursor moveTo(int index) {
+            this.index = check(index);
+            return this;
+        }
+
+        public int index() { return index; }
+        public TokenType getType() { return TokenBuffer.this.getType(index); }
+        public String getLexeme() { return TokenBuffer.this.getLexeme(index); }
+        public int getLine() { return TokenBuffer.this.getLine(index); }
+        public int getColumn() { return TokenBuffer.this.getColumn(index); }
+        public int getStart() { return TokenBuffer.this.getStart(index); }
+        public int getLength() { return TokenBuffer.this.getLength(index); }
+        public int getSymbolId() { return TokenBuffer.this.getSymbolId(index); }
+        public int getOffset() { return TokenBuffer.this.getStart(index); }
+        public long getIntegerValue() { return TokenBuffer.this.getIntegerValue(index); }
+        public double getFloatValue() { return TokenBuffer.this.getFloatValue(index); }
+
+        @Override
+        public String toString() { return toToken(index).toString(); }
+    }
+}
@@ -0,0 +1,310 @@
+package src;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// On-disk cache of scan results, keyed by the SHA-256 of the file contents, the engine and the
+// charset: unchanged files are loaded (tokens, symbol table, errors, statistics) instead of
+// rescanned. Files are decoded and scanned as Lexers.fromPath does (with the platform charset
+// unless another is given), so a hit gives what scanning the file without the cache gives.
+// Entries are memory-mapped when read, and the TokenBuffer reads its columns from the mapping
+// instead of copying them. ASCII files decode to their bytes in any ASCII-compatible charset,
+// so they are scanned as bytes in place and a hit needs no decoded copy of the text either.
+// The strings stored in entries are UTF-8.
+// The least recently used entries are deleted once the cache exceeds maxBytes; recency
+// survives restarts through the entries' modification times. Entries written by another
+// scanner version or TokenType set are ignored and deleted.
+public class TokenCache {
+    private static final int MAGIC = 0x434C5443; // "CLTC"
+    private static final int FORMAT_VERSION = 3;
+    private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+    private static final String SUFFIX = ".tok";
+    private static final int VERSION = version();
+
+    // A scan result, either loaded from the cache (isHit) or freshly scanned.
+    public static class Entry {
+        private final TokenBuffer tokens;
+        private final ScanStatistics statistics;
+        private final SymbolTable symbolTable;
+        private final ErrorHandler errorHandler;
+        private final boolean hit;
+
+        Entry(TokenBuffer tokens, ScanStatistics statistics, SymbolTable symbolTable, ErrorHandler errorHandler, boolean hit) {
+            this.tokens = tokens;
+            this.statistics = statistics;
+            this.symbolTable = symbolTable;
+            this.errorHandler = errorHandler;
+            this.hit = hit;
+        }
+
+        public TokenBuffer getTokens() { return tokens; }
+        public ScanStatistics getStatistics() { return statistics; }
+        public SymbolTable getSymbolTable() { return symbolTable; }
+        public ErrorHandler getErrorHandler() { return errorHandler; }
+        public boolean isHit() { return hit; }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    // entry name -> size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private int hits = 0;
+    private int misses = 0;
+
+    public TokenCache(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, Charset.defaultCharset());
+    }
+
+    // Files are decoded with charset; Lexers.fromPath uses the platform charset.
+    public TokenCache(Path directory, long maxBytes, Charset charset) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.charset = charset;
+        this.asciiCompatible = asciiCompatible(charset);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) files.add(file);
+        }
+        Map<Path, FileTime> times = new HashMap<>();
+        for (Path file : files) times.put(file, Files.getLastModifiedTime(file));
+        files.sort(Comparator.comparing(times::get));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+    }
+
+    // Scans the file with ManualScanner, or loads the result of an earlier scan of identical contents.
+    public Entry get(Path file) throws IOException {
+        return get(file, Lexers.Engine.MANUAL);
+    }
+
+    // Scans the file with engine, or loads the result of an earlier scan of identical contents
+    // with the same engine.
+    public Entry get(Path file, Lexers.Engine engine) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        CharSequence source = asciiCompatible && isAscii(bytes)
+                ? new AsciiCharSequence(ByteBuffer.wrap(bytes))
+                : new String(bytes, charset);
+        String name = key(engine, bytes) + SUFFIX;
+
+        boolean known;
+        synchronized (this) {
+            known = entries.get(name) != null;
+        }
+        if (known) {
+            Entry entry = load(directory.resolve(name), source);
+            if (entry != null) {
+                synchronized (this) { hits++; }
+                touch(directory.resolve(name));
+                return entry;
+            }
+            remove(name);
+        }
+
+        Lexer lexer = Lexers.fromSource(engine, source);
+        TokenBuffer tokens = lexer.scan(new TokenBuffer(source));
+        Entry entry = new Entry(tokens, lexer.getStatistics(), lexer.getSymbolTable(), lexer.getErrorHandler(), false);
+        store(name, entry, source.length());
+        synchronized (this) { misses++; }
+        return entry;
+    }
+
+    private Entry load(Path path, CharSequence source) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            return null; // evicted meanwhile
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getInt() != source.length()) return null;
+
+            ScanStatistics statistics = new ScanStatistics();
+            statistics.setLines(in.getInt());
+            statistics.recordComments(in.getInt());
+            for (TokenType type : TokenType.values()) statistics.recordTokens(type, in.getInt());
+
+            int symbolCount = readCount(in, 3 * Integer.BYTES);
+            SymbolTable symbolTable = new SymbolTable(symbolCount);
+            for (int i = 0; i < symbolCount; i++) {
+                String symbol = readString(in);
+                symbolTable.restore(symbol, in.getInt(), in.getInt());
+            }
+
+            int errorCount = readCount(in, 1 + 3 * Integer.BYTES);
+            ErrorHandler errorHandler = new ErrorHandler();
+            for (int i = 0; i < errorCount; i++) {
+                ErrorCode code = ERROR_CODES[in.get()];
+                int line = in.getInt();
+                int column = in.getInt();
+                errorHandler.addError(code, line, column, readString(in));
+            }
+
+            TokenBuffer tokens = TokenBuffer.deserialize(in, source);
+            if (in.hasRemaining()) return null;
+            return new Entry(tokens, statistics, symbolTable, errorHandler, true);
+        } catch (RuntimeException e) {
+            return null; // truncated, damaged or foreign file: treat as a miss
+        }
+    }
+
+    private void store(String name, Entry entry, int sourceLength) throws IOException {
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sourceLength);
+
+                ScanStatistics statistics = entry.statistics;
+                out.writeInt(statistics.getLines());
+                out.writeInt(statistics.getCommentsRemoved());
+                for (TokenType type : TokenType.values()) out.writeInt(statistics.getTokenCount(type));
+
+                SymbolTable symbolTable = entry.symbolTable;
+                out.writeInt(symbolTable.size());
+                for (int id = 0; id < symbolTable.size(); id++) {
+                    writeString(out, symbolTable.getName(id));
+                    out.writeInt(symbolTable.getFirstLine(id));
+                    out.writeInt(symbolTable.getFrequency(id));
+                }
+
+                List<ErrorHandler.ErrorRecord> errors = entry.errorHandler.getErrors();
+                out.writeInt(errors.size());
+                for (ErrorHandler.ErrorRecord error : errors) {
+                    out.writeByte(error.getCode().ordinal());
+                    out.writeInt(error.getLine());
+                    out.writeInt(error.getColumn());
+                    writeString(out, error.getLexeme());
+                }
+
+                entry.tokens.serialize(out);
+            }
+            Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long size = Files.size(directory.resolve(name));
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> lru = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && lru.hasNext()) {
+                Map.Entry<String, Long> oldest = lru.next();
+                if (oldest.getKey().equals(name)) continue;
+                totalBytes -= oldest.getValue();
+                evicted.add(oldest.getKey());
+                lru.remove();
+            }
+        }
+        for (String old : evicted) Files.deleteIfExists(directory.resolve(old));
+    }
+
+    private void remove(String name) throws IOException {
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size != null) totalBytes -= size;
+        }
+        Files.deleteIfExists(directory.resolve(name));
+    }
+
+    // Records the hit on disk so that LRU order survives a restart.
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only affects eviction order
+        }
+    }
+
+    public synchronized long getTotalBytes() { return totalBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+    public synchronized int getHits() { return hits; }
+    public synchronized int getMisses() { return misses; }
+
+    private String key(Lexers.Engine engine, byte[] bytes) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update((engine.name() + '\0' + charset.name() + '\0').getBytes(StandardCharsets.US_ASCII));
+            byte[] digest = sha.digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Changes with the entry layout, the scanner's VERSION and the TokenType and ErrorCode constants.
+    private static int version() {
+        int version = 31 * FORMAT_VERSION + ManualScanner.VERSION;
+        for (TokenType type : TokenType.values()) version = 31 * version + type.name().hashCode();
+        for (ErrorCode code : ERROR_CODES) version = 31 * version + code.name().hashCode();
+        return version;
+    }
+
+    // Whether the ASCII bytes decode to the ASCII chars, as in UTF-8 and ISO-8859-1.
+    private static boolean asciiCompatible(Charset charset) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) ascii[i] = (byte) i;
+        return new String(ascii, charset).equals(new String(ascii, StandardCharsets.US_ASCII));
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) return false;
+        }
+        return true;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // A count or length read from an entry, checked against the bytes left (each item takes at
+    // least minBytesEach), so a damaged entry is a miss rather than a huge allocation.
+    private static int readCount(ByteBuffer in, int minBytesEach) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / minBytesEach) {
+            throw new IllegalStateException("Corrupt cache entry: count " + count + " at " + (in.position() - Integer.BYTES));
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readCount(in, 1)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,25 @@
+package src;
+
+// Receives tokens as they are scanned, so the scanner never has to build Token objects or print.
+// offset/length locate the lexeme in the whole input; text/textStart locate its characters,
+// which are only guaranteed to be valid for the duration of the call.
+public interface TokenSink {
+    // Discards every token; used for quiet runs and throughput measurements.
+    TokenSink NONE = (type, offset, length, line, column, text, textStart) -> { };
+
+    void token(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart);
+
+    // Identifiers also carry their interned SymbolTable id; sinks that don't need it get a plain token.
+    default void identifier(int offset, int length, int line, int column, CharSequence text, int textStart, int symbolId) {
+        token(TokenType.IDENTIFIER, offset, length, line, column, text, textStart);
+    }
+
+    // Integer and float literals also carry their value, decoded during the scan: the long itself,
+    // or the double's bits (Double.doubleToRawLongBits). Sinks that don't need it get a plain token.
+    default void number(TokenType type, int offset, int length, int line, int column, CharSequence text, int textStart, long value) {
+        token(type, offset, length, line, column, text, textStart);
+    }
+
+    // Called once the scanner has reached the end of its input.
+    default void flush() { }
+}
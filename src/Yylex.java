@@ -1,781 +0,0 @@
-// DO NOT EDIT
-// Generated by JFlex 1.9.1 http://jflex.de/
-// source: src/Scanner.flex
-
-/* 1. User Code Section */
-package src;
-import java.io.IOException;
-
-
-@SuppressWarnings("fallthrough")
-public class Yylex {
-
-  /** This character denotes the end of file. */
-  public static final int YYEOF = -1;
-
-  /** Initial size of the lookahead buffer. */
-  private static final int ZZ_BUFFERSIZE = 16384;
-
-  // Lexical states.
-  public static final int YYINITIAL = 0;
-
-  /**
-   * ZZ_LEXSTATE[l] is the state in the DFA for the lexical state l
-   * ZZ_LEXSTATE[l+1] is the state in the DFA for the lexical state l
-   *                  at the beginning of a line
-   * l is of the form l = 2*k, k a non negative integer
-   */
-  private static final int ZZ_LEXSTATE[] = {
-     0, 0
-  };
-
-  /**
-   * Top-level table for translating characters to character classes
-   */
-  private static final int [] ZZ_CMAP_TOP = zzUnpackcmap_top();
-
-  private static final String ZZ_CMAP_TOP_PACKED_0 =
-    "\1\0\u10ff\u0100";
-
-  private static int [] zzUnpackcmap_top() {
-    int [] result = new int[4352];
-    int offset = 0;
-    offset = zzUnpackcmap_top(ZZ_CMAP_TOP_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackcmap_top(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
-
-
-  /**
-   * Second-level tables for translating characters to character classes
-   */
-  private static final int [] ZZ_CMAP_BLOCKS = zzUnpackcmap_blocks();
-
-  private static final String ZZ_CMAP_BLOCKS_PACKED_0 =
-    "\11\0\1\1\1\2\1\0\1\1\1\3\22\0\1\1"+
-    "\2\0\1\4\1\0\1\5\2\0\2\6\1\5\1\7"+
-    "\1\6\1\7\1\10\1\5\12\11\2\6\5\0\4\12"+
-    "\1\13\25\12\1\6\1\0\1\6\3\0\1\14\3\15"+
-    "\1\16\1\17\5\15\1\20\5\15\1\21\1\22\1\23"+
-    "\1\24\5\15\1\6\1\0\1\6\u0182\0";
-
-  private static int [] zzUnpackcmap_blocks() {
-    int [] result = new int[512];
-    int offset = 0;
-    offset = zzUnpackcmap_blocks(ZZ_CMAP_BLOCKS_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackcmap_blocks(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
-
-  /**
-   * Translates DFA states to action switch labels.
-   */
-  private static final int [] ZZ_ACTION = zzUnpackAction();
-
-  private static final String ZZ_ACTION_PACKED_0 =
-    "\1\0\1\1\2\2\1\1\1\3\1\4\1\3\1\5"+
-    "\1\6\2\1\1\2\1\0\1\6\2\0\1\7\1\6"+
-    "\2\0\1\7\1\0\1\6\1\10\1\7\1\0\1\7"+
-    "\1\6\1\7\1\6\1\7\1\6\1\7\30\6";
-
-  private static int [] zzUnpackAction() {
-    int [] result = new int[58];
-    int offset = 0;
-    offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackAction(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
-
-
-  /**
-   * Translates a state to a row index in the transition table
-   */
-  private static final int [] ZZ_ROWMAP = zzUnpackRowMap();
-
-  private static final String ZZ_ROWMAP_PACKED_0 =
-    "\0\0\0\25\0\25\0\52\0\77\0\25\0\25\0\124"+
-    "\0\151\0\176\0\223\0\250\0\275\0\322\0\347\0\374"+
-    "\0\u0111\0\u0126\0\u013b\0\u0150\0\u0165\0\u017a\0\u018f\0\u01a4"+
-    "\0\25\0\u01b9\0\u01ce\0\u01ce\0\u01e3\0\u01f8\0\u020d\0\u0222"+
-    "\0\u0237\0\u024c\0\u0261\0\u0276\0\u028b\0\u02a0\0\u02b5\0\u02ca"+
-    "\0\u02df\0\u02f4\0\u0309\0\u031e\0\u0333\0\u0348\0\u035d\0\u0372"+
-    "\0\u0387\0\u039c\0\u03b1\0\u03c6\0\u03db\0\u03f0\0\u0405\0\u041a"+
-    "\0\u042f\0\25";
-
-  private static int [] zzUnpackRowMap() {
-    int [] result = new int[58];
-    int offset = 0;
-    offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackRowMap(String packed, int offset, int [] result) {
-    int i = 0;  /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length() - 1;
-    while (i < l) {
-      int high = packed.charAt(i++) << 16;
-      result[j++] = high | packed.charAt(i++);
-    }
-    return j;
-  }
-
-  /**
-   * The transition table of the DFA
-   */
-  private static final int [] ZZ_TRANS = zzUnpacktrans();
-
-  private static final String ZZ_TRANS_PACKED_0 =
-    "\1\2\2\3\1\4\1\5\1\6\1\7\1\10\1\2"+
-    "\1\11\2\12\3\2\1\13\3\2\1\14\1\2\27\0"+
-    "\1\3\26\0\1\15\31\0\1\11\23\0\1\16\1\11"+
-    "\24\0\1\17\2\0\11\17\14\0\1\20\31\0\1\21"+
-    "\3\0\2\15\1\0\22\15\11\0\1\22\24\0\1\23"+
-    "\2\0\11\23\20\0\1\24\30\0\1\25\11\0\1\26"+
-    "\1\0\1\27\2\0\1\27\17\0\1\30\2\0\11\30"+
-    "\22\0\1\25\20\0\1\31\17\0\1\32\1\0\1\27"+
-    "\2\0\1\27\15\0\1\33\1\0\1\34\24\0\1\35"+
-    "\2\0\11\35\11\0\1\36\1\0\1\27\2\0\1\27"+
-    "\17\0\1\34\24\0\1\37\2\0\11\37\11\0\1\40"+
-    "\1\0\1\27\2\0\1\27\17\0\1\41\2\0\11\41"+
-    "\11\0\1\42\1\0\1\27\2\0\1\27\17\0\1\43"+
-    "\2\0\11\43\13\0\1\27\2\0\1\27\17\0\1\44"+
-    "\2\0\11\44\11\0\1\45\2\0\11\45\11\0\1\46"+
-    "\2\0\11\46\11\0\1\47\2\0\11\47\11\0\1\50"+
-    "\2\0\11\50\11\0\1\51\2\0\11\51\11\0\1\52"+
-    "\2\0\11\52\11\0\1\53\2\0\11\53\11\0\1\54"+
-    "\2\0\11\54\11\0\1\55\2\0\11\55\11\0\1\56"+
-    "\2\0\11\56\11\0\1\57\2\0\11\57\11\0\1\60"+
-    "\2\0\11\60\11\0\1\61\2\0\11\61\11\0\1\62"+
-    "\2\0\11\62\11\0\1\63\2\0\11\63\11\0\1\64"+
-    "\2\0\11\64\11\0\1\65\2\0\11\65\11\0\1\66"+
-    "\2\0\11\66\11\0\1\67\2\0\11\67\11\0\1\70"+
-    "\2\0\11\70\11\0\1\71\2\0\11\71\11\0\1\72"+
-    "\2\0\11\72";
-
-  private static int [] zzUnpacktrans() {
-    int [] result = new int[1092];
-    int offset = 0;
-    offset = zzUnpacktrans(ZZ_TRANS_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpacktrans(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      value--;
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
-
-
-  /** Error code for "Unknown internal scanner error". */
-  private static final int ZZ_UNKNOWN_ERROR = 0;
-  /** Error code for "could not match input". */
-  private static final int ZZ_NO_MATCH = 1;
-  /** Error code for "pushback value was too large". */
-  private static final int ZZ_PUSHBACK_2BIG = 2;
-
-  /**
-   * Error messages for {@link #ZZ_UNKNOWN_ERROR}, {@link #ZZ_NO_MATCH}, and
-   * {@link #ZZ_PUSHBACK_2BIG} respectively.
-   */
-  private static final String ZZ_ERROR_MSG[] = {
-    "Unknown internal scanner error",
-    "Error: could not match input",
-    "Error: pushback value was too large"
-  };
-
-  /**
-   * ZZ_ATTRIBUTE[aState] contains the attributes of state {@code aState}
-   */
-  private static final int [] ZZ_ATTRIBUTE = zzUnpackAttribute();
-
-  private static final String ZZ_ATTRIBUTE_PACKED_0 =
-    "\1\0\2\11\2\1\2\11\6\1\1\0\1\1\2\0"+
-    "\2\1\2\0\1\1\1\0\1\1\1\11\1\1\1\0"+
-    "\36\1\1\11";
-
-  private static int [] zzUnpackAttribute() {
-    int [] result = new int[58];
-    int offset = 0;
-    offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackAttribute(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
-
-  /** Input device. */
-  private java.io.Reader zzReader;
-
-  /** Current state of the DFA. */
-  private int zzState;
-
-  /** Current lexical state. */
-  private int zzLexicalState = YYINITIAL;
-
-  /**
-   * This buffer contains the current text to be matched and is the source of the {@link #yytext()}
-   * string.
-   */
-  private char zzBuffer[] = new char[Math.min(ZZ_BUFFERSIZE, zzMaxBufferLen())];
-
-  /** Text position at the last accepting state. */
-  private int zzMarkedPos;
-
-  /** Current text position in the buffer. */
-  private int zzCurrentPos;
-
-  /** Marks the beginning of the {@link #yytext()} string in the buffer. */
-  private int zzStartRead;
-
-  /** Marks the last character in the buffer, that has been read from input. */
-  private int zzEndRead;
-
-  /**
-   * Whether the scanner is at the end of file.
-   * @see #yyatEOF
-   */
-  private boolean zzAtEOF;
-
-  /**
-   * The number of occupied positions in {@link #zzBuffer} beyond {@link #zzEndRead}.
-   *
-   * <p>When a lead/high surrogate has been read from the input stream into the final
-   * {@link #zzBuffer} position, this will have a value of 1; otherwise, it will have a value of 0.
-   */
-  private int zzFinalHighSurrogate = 0;
-
-  /** Number of newlines encountered up to the start of the matched text. */
-  private int yyline;
-
-  /** Number of characters from the last newline up to the start of the matched text. */
-  private int yycolumn;
-
-  /** Number of characters up to the start of the matched text. */
-  @SuppressWarnings("unused")
-  private long yychar;
-
-  /** Whether the scanner is currently at the beginning of a line. */
-  @SuppressWarnings("unused")
-  private boolean zzAtBOL = true;
-
-  /** Whether the user-EOF-code has already been executed. */
-  @SuppressWarnings("unused")
-  private boolean zzEOFDone;
-
-  /* user code: */
-  // Helper to create tokens with line/col info
-  private Token token(TokenType type) {
-      return new Token(type, yytext(), yyline + 1, yycolumn + 1);
-  }
-
-
-  /**
-   * Creates a new scanner
-   *
-   * @param   in  the java.io.Reader to read input from.
-   */
-  public Yylex(java.io.Reader in) {
-    this.zzReader = in;
-  }
-
-
-  /** Returns the maximum size of the scanner buffer, which limits the size of tokens. */
-  private int zzMaxBufferLen() {
-    return Integer.MAX_VALUE;
-  }
-
-  /**  Whether the scanner buffer can grow to accommodate a larger token. */
-  private boolean zzCanGrow() {
-    return true;
-  }
-
-  /**
-   * Translates raw input code points to DFA table row
-   */
-  private static int zzCMap(int input) {
-    int offset = input & 255;
-    return offset == input ? ZZ_CMAP_BLOCKS[offset] : ZZ_CMAP_BLOCKS[ZZ_CMAP_TOP[input >> 8] | offset];
-  }
-
-  /**
-   * Refills the input buffer.
-   *
-   * @return {@code false} iff there was new input.
-   * @exception java.io.IOException  if any I/O-Error occurs
-   */
-  private boolean zzRefill() throws java.io.IOException {
-
-    /* first: make room (if you can) */
-    if (zzStartRead > 0) {
-      zzEndRead += zzFinalHighSurrogate;
-      zzFinalHighSurrogate = 0;
-      System.arraycopy(zzBuffer, zzStartRead,
-                       zzBuffer, 0,
-                       zzEndRead - zzStartRead);
-
-      /* translate stored positions */
-      zzEndRead -= zzStartRead;
-      zzCurrentPos -= zzStartRead;
-      zzMarkedPos -= zzStartRead;
-      zzStartRead = 0;
-    }
-
-    /* is the buffer big enough? */
-    if (zzCurrentPos >= zzBuffer.length - zzFinalHighSurrogate && zzCanGrow()) {
-      /* if not, and it can grow: blow it up */
-      char newBuffer[] = new char[Math.min(zzBuffer.length * 2, zzMaxBufferLen())];
-      System.arraycopy(zzBuffer, 0, newBuffer, 0, zzBuffer.length);
-      zzBuffer = newBuffer;
-      zzEndRead += zzFinalHighSurrogate;
-      zzFinalHighSurrogate = 0;
-    }
-
-    /* fill the buffer with new input */
-    int requested = zzBuffer.length - zzEndRead;
-    int numRead = zzReader.read(zzBuffer, zzEndRead, requested);
-
-    /* not supposed to occur according to specification of java.io.Reader */
-    if (numRead == 0) {
-      if (requested == 0) {
-        throw new java.io.EOFException("Scan buffer limit reached ["+zzBuffer.length+"]");
-      }
-      else {
-        throw new java.io.IOException(
-            "Reader returned 0 characters. See JFlex examples/zero-reader for a workaround.");
-      }
-    }
-    if (numRead > 0) {
-      zzEndRead += numRead;
-      if (Character.isHighSurrogate(zzBuffer[zzEndRead - 1])) {
-        if (numRead == requested) { // We requested too few chars to encode a full Unicode character
-          --zzEndRead;
-          zzFinalHighSurrogate = 1;
-        } else {                    // There is room in the buffer for at least one more char
-          int c = zzReader.read();  // Expecting to read a paired low surrogate char
-          if (c == -1) {
-            return true;
-          } else {
-            zzBuffer[zzEndRead++] = (char)c;
-          }
-        }
-      }
-      /* potentially more input available */
-      return false;
-    }
-
-    /* numRead < 0 ==> end of stream */
-    return true;
-  }
-
-
-  /**
-   * Closes the input reader.
-   *
-   * @throws java.io.IOException if the reader could not be closed.
-   */
-  public final void yyclose() throws java.io.IOException {
-    zzAtEOF = true; // indicate end of file
-    zzEndRead = zzStartRead; // invalidate buffer
-
-    if (zzReader != null) {
-      zzReader.close();
-    }
-  }
-
-
-  /**
-   * Resets the scanner to read from a new input stream.
-   *
-   * <p>Does not close the old reader.
-   *
-   * <p>All internal variables are reset, the old input stream <b>cannot</b> be reused (internal
-   * buffer is discarded and lost). Lexical state is set to {@code ZZ_INITIAL}.
-   *
-   * <p>Internal scan buffer is resized down to its initial length, if it has grown.
-   *
-   * @param reader The new input stream.
-   */
-  public final void yyreset(java.io.Reader reader) {
-    zzReader = reader;
-    zzEOFDone = false;
-    yyResetPosition();
-    zzLexicalState = YYINITIAL;
-    int initBufferSize = Math.min(ZZ_BUFFERSIZE, zzMaxBufferLen());
-    if (zzBuffer.length > initBufferSize) {
-      zzBuffer = new char[initBufferSize];
-    }
-  }
-
-  /**
-   * Resets the input position.
-   */
-  private final void yyResetPosition() {
-      zzAtBOL  = true;
-      zzAtEOF  = false;
-      zzCurrentPos = 0;
-      zzMarkedPos = 0;
-      zzStartRead = 0;
-      zzEndRead = 0;
-      zzFinalHighSurrogate = 0;
-      yyline = 0;
-      yycolumn = 0;
-      yychar = 0L;
-  }
-
-
-  /**
-   * Returns whether the scanner has reached the end of the reader it reads from.
-   *
-   * @return whether the scanner has reached EOF.
-   */
-  public final boolean yyatEOF() {
-    return zzAtEOF;
-  }
-
-
-  /**
-   * Returns the current lexical state.
-   *
-   * @return the current lexical state.
-   */
-  public final int yystate() {
-    return zzLexicalState;
-  }
-
-
-  /**
-   * Enters a new lexical state.
-   *
-   * @param newState the new lexical state
-   */
-  public final void yybegin(int newState) {
-    zzLexicalState = newState;
-  }
-
-
-  /**
-   * Returns the text matched by the current regular expression.
-   *
-   * @return the matched text.
-   */
-  public final String yytext() {
-    return new String(zzBuffer, zzStartRead, zzMarkedPos-zzStartRead);
-  }
-
-
-  /**
-   * Returns the character at the given position from the matched text.
-   *
-   * <p>It is equivalent to {@code yytext().charAt(pos)}, but faster.
-   *
-   * @param position the position of the character to fetch. A value from 0 to {@code yylength()-1}.
-   *
-   * @return the character at {@code position}.
-   */
-  public final char yycharat(int position) {
-    return zzBuffer[zzStartRead + position];
-  }
-
-
-  /**
-   * How many characters were matched.
-   *
-   * @return the length of the matched text region.
-   */
-  public final int yylength() {
-    return zzMarkedPos-zzStartRead;
-  }
-
-
-  /**
-   * Reports an error that occurred while scanning.
-   *
-   * <p>In a well-formed scanner (no or only correct usage of {@code yypushback(int)} and a
-   * match-all fallback rule) this method will only be called with things that
-   * "Can't Possibly Happen".
-   *
-   * <p>If this method is called, something is seriously wrong (e.g. a JFlex bug producing a faulty
-   * scanner etc.).
-   *
-   * <p>Usual syntax/scanner level error handling should be done in error fallback rules.
-   *
-   * @param errorCode the code of the error message to display.
-   */
-  private static void zzScanError(int errorCode) {
-    String message;
-    try {
-      message = ZZ_ERROR_MSG[errorCode];
-    } catch (ArrayIndexOutOfBoundsException e) {
-      message = ZZ_ERROR_MSG[ZZ_UNKNOWN_ERROR];
-    }
-
-    throw new Error(message);
-  }
-
-
-  /**
-   * Pushes the specified amount of characters back into the input stream.
-   *
-   * <p>They will be read again by then next call of the scanning method.
-   *
-   * @param number the number of characters to be read again. This number must not be greater than
-   *     {@link #yylength()}.
-   */
-  public void yypushback(int number)  {
-    if ( number > yylength() )
-      zzScanError(ZZ_PUSHBACK_2BIG);
-
-    zzMarkedPos -= number;
-  }
-
-
-
-
-  /**
-   * Resumes scanning until the next regular expression is matched, the end of input is encountered
-   * or an I/O-Error occurs.
-   *
-   * @return the next token.
-   * @exception java.io.IOException if any I/O-Error occurs.
-   */
-  public Token yylex() throws java.io.IOException
-  {
-    int zzInput;
-    int zzAction;
-
-    // cached fields:
-    int zzCurrentPosL;
-    int zzMarkedPosL;
-    int zzEndReadL = zzEndRead;
-    char[] zzBufferL = zzBuffer;
-
-    int [] zzTransL = ZZ_TRANS;
-    int [] zzRowMapL = ZZ_ROWMAP;
-    int [] zzAttrL = ZZ_ATTRIBUTE;
-
-    while (true) {
-      zzMarkedPosL = zzMarkedPos;
-
-      boolean zzR = false;
-      int zzCh;
-      int zzCharCount;
-      for (zzCurrentPosL = zzStartRead  ;
-           zzCurrentPosL < zzMarkedPosL ;
-           zzCurrentPosL += zzCharCount ) {
-        zzCh = Character.codePointAt(zzBufferL, zzCurrentPosL, zzMarkedPosL);
-        zzCharCount = Character.charCount(zzCh);
-        switch (zzCh) {
-        case '\u000B':  // fall through
-        case '\u000C':  // fall through
-        case '\u0085':  // fall through
-        case '\u2028':  // fall through
-        case '\u2029':
-          yyline++;
-          yycolumn = 0;
-          zzR = false;
-          break;
-        case '\r':
-          yyline++;
-          yycolumn = 0;
-          zzR = true;
-          break;
-        case '\n':
-          if (zzR)
-            zzR = false;
-          else {
-            yyline++;
-            yycolumn = 0;
-          }
-          break;
-        default:
-          zzR = false;
-          yycolumn += zzCharCount;
-        }
-      }
-
-      if (zzR) {
-        // peek one character ahead if it is
-        // (if we have counted one line too much)
-        boolean zzPeek;
-        if (zzMarkedPosL < zzEndReadL)
-          zzPeek = zzBufferL[zzMarkedPosL] == '\n';
-        else if (zzAtEOF)
-          zzPeek = false;
-        else {
-          boolean eof = zzRefill();
-          zzEndReadL = zzEndRead;
-          zzMarkedPosL = zzMarkedPos;
-          zzBufferL = zzBuffer;
-          if (eof)
-            zzPeek = false;
-          else
-            zzPeek = zzBufferL[zzMarkedPosL] == '\n';
-        }
-        if (zzPeek) yyline--;
-      }
-      zzAction = -1;
-
-      zzCurrentPosL = zzCurrentPos = zzStartRead = zzMarkedPosL;
-
-      zzState = ZZ_LEXSTATE[zzLexicalState];
-
-      // set up zzAction for empty match case:
-      int zzAttributes = zzAttrL[zzState];
-      if ( (zzAttributes & 1) == 1 ) {
-        zzAction = zzState;
-      }
-
-
-      zzForAction: {
-        while (true) {
-
-          if (zzCurrentPosL < zzEndReadL) {
-            zzInput = Character.codePointAt(zzBufferL, zzCurrentPosL, zzEndReadL);
-            zzCurrentPosL += Character.charCount(zzInput);
-          }
-          else if (zzAtEOF) {
-            zzInput = YYEOF;
-            break zzForAction;
-          }
-          else {
-            // store back cached positions
-            zzCurrentPos  = zzCurrentPosL;
-            zzMarkedPos   = zzMarkedPosL;
-            boolean eof = zzRefill();
-            // get translated positions and possibly new buffer
-            zzCurrentPosL  = zzCurrentPos;
-            zzMarkedPosL   = zzMarkedPos;
-            zzBufferL      = zzBuffer;
-            zzEndReadL     = zzEndRead;
-            if (eof) {
-              zzInput = YYEOF;
-              break zzForAction;
-            }
-            else {
-              zzInput = Character.codePointAt(zzBufferL, zzCurrentPosL, zzEndReadL);
-              zzCurrentPosL += Character.charCount(zzInput);
-            }
-          }
-          int zzNext = zzTransL[ zzRowMapL[zzState] + zzCMap(zzInput) ];
-          if (zzNext == -1) break zzForAction;
-          zzState = zzNext;
-
-          zzAttributes = zzAttrL[zzState];
-          if ( (zzAttributes & 1) == 1 ) {
-            zzAction = zzState;
-            zzMarkedPosL = zzCurrentPosL;
-            if ( (zzAttributes & 8) == 8 ) break zzForAction;
-          }
-
-        }
-      }
-
-      // store back cached position
-      zzMarkedPos = zzMarkedPosL;
-
-      if (zzInput == YYEOF && zzStartRead == zzCurrentPos) {
-        zzAtEOF = true;
-        return null;
-      }
-      else {
-        switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction]) {
-          case 1:
-            { System.err.println("Error: Illegal character <" + yytext() + "> at line " + (yyline+1));
-    return token(TokenType.ERROR);
-            }
-          // fall through
-          case 9: break;
-          case 2:
-            { /* ignore */
-            }
-          // fall through
-          case 10: break;
-          case 3:
-            { return token(TokenType.ARITHMETIC_OP);
-            }
-          // fall through
-          case 11: break;
-          case 4:
-            { return token(TokenType.PUNCTUATOR);
-            }
-          // fall through
-          case 12: break;
-          case 5:
-            { return token(TokenType.INTEGER_LITERAL);
-            }
-          // fall through
-          case 13: break;
-          case 6:
-            { return token(TokenType.IDENTIFIER);
-            }
-          // fall through
-          case 14: break;
-          case 7:
-            { return token(TokenType.FLOAT_LITERAL);
-            }
-          // fall through
-          case 15: break;
-          case 8:
-            { return token(TokenType.BOOLEAN_LITERAL);
-            }
-          // fall through
-          case 16: break;
-          default:
-            zzScanError(ZZ_NO_MATCH);
-        }
-      }
-    }
-  }
-
-
-}
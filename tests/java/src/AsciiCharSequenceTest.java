@@ -0,0 +1,93 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// The word-at-a-time searches find what a byte-by-byte search finds, wherever the match falls
+// relative to the eight-byte words.
+class AsciiCharSequenceTest {
+    // Bytes that differ from the ones searched for only in their top bit or by one.
+    private static final byte[] NEAR_MISSES = { 'x', (byte) 0x8A, (byte) 0x8D, (byte) 0xA0, (byte) 0x89, 0x0B, 0x1F, 0x21, 0x08, (byte) 0xFF, 0 };
+
+    private static int lineEnd(ByteBuffer bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes.get(bytes.position() + i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return to;
+    }
+
+    private static int blanksEnd(ByteBuffer bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes.get(bytes.position() + i);
+            if (b != ' ' && b != '\t') return i;
+        }
+        return to;
+    }
+
+    @Test
+    void searchesAgreeWithAScalarSearch() {
+        for (int shift = 0; shift < 8; shift++) {
+            for (int at = 0; at < 40; at++) {
+                for (byte filler : NEAR_MISSES) {
+                    for (byte stop : new byte[] { '\n', '\r', 'A', (byte) 0x80 }) {
+                        // `shift` leading bytes move every index across the word boundaries
+                        byte[] line = new byte[shift + 40];
+                        Arrays.fill(line, filler);
+                        line[shift + at] = stop;
+                        byte[] blanks = new byte[shift + 40];
+                        for (int i = 0; i < blanks.length; i++) blanks[i] = (byte) (i % 3 == 0 ? '\t' : ' ');
+                        blanks[shift + at] = filler;
+
+                        ByteBuffer lineBytes = ByteBuffer.wrap(line).position(shift);
+                        ByteBuffer blankBytes = ByteBuffer.wrap(blanks).position(shift);
+                        AsciiCharSequence lineText = new AsciiCharSequence(lineBytes);
+                        AsciiCharSequence blankText = new AsciiCharSequence(blankBytes);
+                        for (int from = 0; from <= at + 1; from++) {
+                            for (int to : new int[] { at, at + 1, Math.min(at + 9, 40), 40 }) {
+                                if (to < from) continue;
+                                String where = "shift " + shift + " at " + at + " from " + from + " to " + to;
+                                assertEquals(lineEnd(lineBytes, from, to), lineText.indexOfLineEnd(from, to), where);
+                                assertEquals(blanksEnd(blankBytes, from, to), blankText.skipBlanks(from, to), where);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void subSequencesSearchFromTheirOwnStart() {
+        AsciiCharSequence text = new AsciiCharSequence(ByteBuffer.wrap("abc## x\n   \tYz\r".getBytes(StandardCharsets.US_ASCII)));
+        AsciiCharSequence tail = (AsciiCharSequence) text.subSequence(3, text.length());
+        assertEquals(4, tail.indexOfLineEnd(0, tail.length()));
+        assertEquals(9, tail.skipBlanks(5, tail.length()));
+        assertEquals(tail.length() - 1, tail.indexOfLineEnd(5, tail.length()));
+    }
+
+    @Test
+    void bulkSkipsScanLikeCharacterSteps() {
+        // comments and blank runs of every length, so their ends fall at every offset in a word
+        StringBuilder text = new StringBuilder();
+        for (int length = 0; length < 20; length++) {
+            text.append("A").append(" ".repeat(length)).append("## ").append("c".repeat(length)).append('\n');
+            text.append("\t".repeat(length)).append(length).append(" \t".repeat(length)).append("## x\r\n");
+            text.append(" ".repeat(length)).append("##").append("\r");
+        }
+        String source = text.toString();
+        List<Token> expected = ManualScanner.fromSource(new StringBuilder(source)).scanTokens();
+        assertEquals(expected.toString(), ManualScanner.fromSource(source).scanTokens().toString());
+        ByteBuffer bytes = ByteBuffer.wrap(("..." + source).getBytes(StandardCharsets.US_ASCII)).position(3);
+        assertEquals(expected.toString(), ManualScanner.fromBytes(bytes).scanTokens().toString());
+        ManualScanner scanner = ManualScanner.fromBytes(bytes.position(3));
+        scanner.scanTokens();
+        assertEquals(60, scanner.getStatistics().getCommentsRemoved());
+        assertEquals(61, scanner.getStatistics().getLines());
+    }
+}
@@ -0,0 +1,204 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchScannerTest {
+    @TempDir
+    Path directory;
+
+    private Path file(String name, String text) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, text);
+    }
+
+    private List<String> expand(String input) throws IOException {
+        return BatchScanner.expand(input).stream()
+                .map(p -> directory.relativize(p).toString().replace('\\', '/'))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void filesDirectoriesAndGlobsExpandInPathOrder() throws IOException {
+        file("a.lang", "A");
+        file("sub/b.lang", "B");
+        file("sub/deep/c.lang", "C");
+        file("sub/notes.txt", "x");
+        String base = directory.toString() + "/";
+        assertEquals(List.of("a.lang", "sub/b.lang", "sub/deep/c.lang"), expand(base));
+        assertEquals(List.of("sub/b.lang", "sub/deep/c.lang"), expand(base + "sub"));
+        assertEquals(List.of("sub/b.lang"), expand(base + "sub/*.lang"));
+        assertEquals(List.of("sub/b.lang", "sub/notes.txt"), expand(base + "sub/*.{lang,txt}"));
+        assertEquals(List.of("sub/deep/c.lang"), expand(base + "*/deep/?.lang"));
+        assertEquals(List.of("sub/notes.txt"), expand(base + "sub/notes.txt"));
+        assertEquals(List.of(), expand(base + "missing/*.lang"));
+        assertThrows(IOException.class, () -> BatchScanner.expand(base + "missing.lang"));
+    }
+
+    // "**/" also matches no directory, so a glob takes the files directly in its base directory.
+    @Test
+    void directoryWildcardsAlsoMatchNoDirectory() throws IOException {
+        file("top.lang", "A");
+        file("sub/b.lang", "B");
+        file("sub/deep/c.lang", "C");
+        file("sub/deep/more/d.lang", "D");
+        file("x/deep/e.lang", "E");
+        file("sub/notes.txt", "x");
+        String base = directory.toString() + "/";
+        assertEquals(List.of("sub/b.lang", "sub/deep/c.lang", "sub/deep/more/d.lang", "top.lang", "x/deep/e.lang"),
+                expand(base + "**/*.lang"));
+        assertEquals(List.of("sub/b.lang", "sub/deep/c.lang", "sub/deep/more/d.lang"), expand(base + "sub/**/*.lang"));
+        assertEquals(List.of("sub/deep/c.lang", "sub/deep/more/d.lang", "x/deep/e.lang"), expand(base + "**/deep/**/*.lang"));
+        assertEquals(List.of("sub/deep/c.lang"), expand(base + "sub/**/deep/*.lang"));
+        // "**" that is not a whole segment keeps Java's meaning
+        assertEquals(List.of("sub/deep/c.lang", "sub/deep/more/d.lang"), expand(base + "sub/d**/*.lang"));
+    }
+
+    // Totals are the sum of the files; names are numbered and dated by the first file, in input
+    // order, that uses them, however the files were scheduled.
+    @Test
+    void resultsAreMergedInInputOrder() throws IOException, InterruptedException {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            String text = (i % 3 == 0 ? "\n\n" : "") + "Count" + (i % 4) + " + Shared ## c\n@ Only" + i + "\n" + ScanResults.randomSource(i, 50 * (12 - i));
+            inputs.add(file("f" + (char) ('a' + i) + ".lang", text).toString());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        BatchScanner batch = new BatchScanner(Lexers.Engine.MANUAL, executor, 1 << 20).scan(inputs);
+        executor.shutdown();
+
+        SymbolTable expectedSymbols = new SymbolTable();
+        int tokens = 0;
+        int lines = 0;
+        int comments = 0;
+        int errors = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            BatchScanner.FileResult result = batch.getFiles().get(i);
+            assertEquals(Path.of(inputs.get(i)), result.getPath());
+            ManualScanner scanner = ManualScanner.fromSource(Files.readString(result.getPath()));
+            scanner.scan(TokenSink.NONE);
+            assertEquals(ScanResults.describe(scanner.getStatistics()), ScanResults.describe(result.getStatistics()));
+            tokens += scanner.getStatistics().getTotalTokens();
+            lines += scanner.getStatistics().getLines();
+            comments += scanner.getStatistics().getCommentsRemoved();
+            errors += scanner.getErrorHandler().getErrors().size();
+            expectedSymbols.merge(scanner.getSymbolTable(), 0);
+        }
+        assertEquals(tokens, batch.getStatistics().getTotalTokens());
+        assertEquals(lines, batch.getStatistics().getLines());
+        assertEquals(comments, batch.getStatistics().getCommentsRemoved());
+        assertEquals(errors, batch.getErrorCount());
+        SymbolTable symbols = batch.getSymbolTable();
+        assertEquals(expectedSymbols.size(), symbols.size());
+        for (int id = 0; id < symbols.size(); id++) {
+            assertEquals(expectedSymbols.getName(id), symbols.getName(id));
+            assertEquals(expectedSymbols.getFirstLine(id), symbols.getFirstLine(id));
+            assertEquals(expectedSymbols.getFrequency(id), symbols.getFrequency(id));
+        }
+        assertEquals(0, symbols.lookup("Count0"));
+        assertEquals(3, symbols.getFirstLine(symbols.lookup("Count0")));
+        assertEquals(12, symbols.getFrequency(symbols.lookup("Shared")));
+        assertEquals(2, symbols.getFirstLine(symbols.lookup("Only5")));
+    }
+
+    @Test
+    void unreadableFilesAreReportedNotThrown() throws Exception {
+        Path good = file("good.lang", "Abc");
+        Path gone = file("gone.lang", "Def");
+        HeldExecutor executor = new HeldExecutor();
+        BatchScanner batch = new BatchScanner(Lexers.Engine.MANUAL, executor, 1 << 20);
+        Thread scanning = scanInBackground(batch, List.of(good.toString(), gone.toString()));
+        waitFor(() -> executor.tasks.size() == 2);
+        Files.delete(gone);
+        while (scanning.isAlive() || !executor.tasks.isEmpty()) {
+            Runnable task = executor.tasks.poll(10, TimeUnit.MILLISECONDS);
+            if (task != null) task.run();
+        }
+        assertEquals(2, batch.getFiles().size());
+        assertEquals(null, batch.getFiles().get(0).getFailure());
+        assertTrue(batch.getFiles().get(1).getFailure() instanceof NoSuchFileException);
+        assertEquals(1, batch.getStatistics().getTotalTokens());
+    }
+
+    // Tasks wait in the queue until the test runs them, in submission order, so the files in
+    // flight are exactly the queued ones.
+    @Test
+    void inFlightBytesStayUnderTheLimit() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        for (int i = 0; i < 6; i++) inputs.add(file("f" + i + ".lang", "Abc " + "x".repeat(95) + "\n").toString());
+        inputs.add(2, file("big.lang", "Big\n".repeat(100)).toString());
+        for (String input : inputs) sizes.add(Files.size(Path.of(input)));
+        HeldExecutor executor = new HeldExecutor();
+        BatchScanner batch = new BatchScanner(Lexers.Engine.MANUAL, executor, 250);
+        Thread scanning = scanInBackground(batch, inputs);
+
+        int ran = 0;
+        int mostQueued = 0;
+        while (ran < inputs.size()) {
+            // the scanner is blocked on the limit, or waiting for results once everything is queued
+            waitFor(() -> !executor.tasks.isEmpty() && scanning.getState() == Thread.State.WAITING);
+            int queued = executor.tasks.size();
+            long bytes = 0;
+            for (int i = ran; i < ran + queued; i++) bytes += sizes.get(i);
+            // a file over the limit runs on its own
+            assertTrue(bytes <= 250 || queued == 1, queued + " files, " + bytes + " bytes");
+            mostQueued = Math.max(mostQueued, queued);
+            executor.tasks.poll().run();
+            ran++;
+        }
+        scanning.join();
+        assertEquals(2, mostQueued);
+        assertEquals(7, batch.getFiles().size());
+        assertEquals(106, batch.getStatistics().getTotalTokens());
+    }
+
+    private static Thread scanInBackground(BatchScanner batch, List<String> inputs) {
+        Thread scanning = new Thread(() -> {
+            try {
+                batch.scan(inputs);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        scanning.start();
+        return scanning;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("timed out");
+            Thread.sleep(1);
+        }
+    }
+
+    private static class HeldExecutor extends AbstractExecutorService {
+        final LinkedBlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+        @Override public void execute(Runnable task) { tasks.add(task); }
+        @Override public void shutdown() { }
+        @Override public List<Runnable> shutdownNow() { return new ArrayList<>(tasks); }
+        @Override public boolean isShutdown() { return false; }
+        @Override public boolean isTerminated() { return false; }
+        @Override public boolean awaitTermination(long timeout, TimeUnit unit) { return true; }
+    }
+}
@@ -0,0 +1,154 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+// What CompactTokenReader reads back must be what was scanned into CompactTokenSink.
+class CompactTokenStreamTest {
+    private static byte[] compact(Lexer lexer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        lexer.scan(new CompactTokenSink(out));
+        return out.toByteArray();
+    }
+
+    private static void assertRoundTrip(String text) {
+        ManualScanner scanner = ManualScanner.fromSource(text);
+        TokenBuffer tokens = scanner.scanToBuffer();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tokens.writeTo(new CompactTokenSink(out));
+
+        CompactTokenReader reader = new CompactTokenReader(ByteBuffer.wrap(out.toByteArray()));
+        for (int i = 0; i < tokens.size(); i++) {
+            assertTrue(reader.next(), "token " + i);
+            assertEquals(tokens.getType(i), reader.getType());
+            assertEquals(tokens.getStart(i), reader.getOffset());
+            assertEquals(tokens.getLength(i), reader.getLength());
+            assertEquals(tokens.getLine(i), reader.getLine(), "line of token " + i);
+            assertEquals(tokens.getColumn(i), reader.getColumn(), "column of token " + i);
+            assertEquals(tokens.getLexeme(i), reader.getLexeme().toString());
+            int id = tokens.getSymbolId(i);
+            if (id >= 0) {
+                assertEquals(scanner.getSymbolTable().getName(id), reader.getSymbolName(reader.getSymbolId()).toString());
+            } else {
+                assertEquals(-1, reader.getSymbolId());
+            }
+        }
+        assertFalse(reader.next());
+        assertFalse(reader.next());
+        assertEquals(out.size(), reader.position());
+
+        // replaying prints what printing the scan does
+        StringWriter expected = new StringWriter();
+        tokens.writeTo(new TextTokenSink(expected));
+        StringWriter actual = new StringWriter();
+        new CompactTokenReader(ByteBuffer.wrap(out.toByteArray())).writeTo(new TextTokenSink(actual));
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void roundTripsRandomText() {
+        for (long seed = 0; seed < 20; seed++) assertRoundTrip(ScanResults.randomSource(seed, 500));
+    }
+
+    @Test
+    void roundTripsMultiByteDeltas() {
+        // offsets, lines and columns past the one-byte varint range, and a repeated long name
+        String longLine = "## " + "x".repeat(200000) + "\n";
+        String text = longLine + "\n".repeat(300) + " ".repeat(5000) + "Abc 1 Abc\n" + longLine + "Abc";
+        assertRoundTrip(text);
+        assertRoundTrip("");
+        assertRoundTrip("## nothing but a comment");
+    }
+
+    @Test
+    void scanningIntoTheSinkWritesWhatTheBufferWrites() {
+        String text = ScanResults.randomSource(16, 2000);
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            TokenBuffer tokens = Lexers.fromSource(engine, text).scan(new TokenBuffer(text));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            tokens.writeTo(new CompactTokenSink(out));
+            assertArrayEquals(out.toByteArray(), compact(Lexers.fromSource(engine, text)), engine.toString());
+        }
+        assertArrayEquals(compact(ManualScanner.fromSource(text)), compact(TableScanner.fromSource(text)));
+    }
+
+    @Test
+    void flushStartsAnotherStream() {
+        String first = "Abc + 1\nDef";
+        String second = "Def * 2.5\n\nAbc";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactTokenSink sink = new CompactTokenSink(out);
+        ManualScanner.fromSource(first).scan(sink);
+        ManualScanner.fromSource(second).scan(sink);
+
+        ByteBuffer both = ByteBuffer.wrap(out.toByteArray());
+        StringBuilder names = new StringBuilder();
+        for (String text : new String[] { first, second }) {
+            CompactTokenReader reader = new CompactTokenReader(both);
+            TokenBuffer expected = ManualScanner.fromSource(text).scanToBuffer();
+            int count = 0;
+            while (reader.next()) {
+                assertEquals(expected.getLexeme(count), reader.getLexeme().toString());
+                assertEquals(expected.getLine(count), reader.getLine());
+                count++;
+            }
+            assertEquals(expected.size(), count);
+            for (int id = 0; id < reader.getSymbolCount(); id++) names.append(reader.getSymbolName(id)).append(' ');
+            both.position(reader.position());
+        }
+        // each stream has its own string table
+        assertEquals("Abc Def Def Abc ", names.toString());
+        assertFalse(both.hasRemaining());
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedStreams() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactTokenReader(ByteBuffer.wrap("CLTX\1".getBytes())));
+        byte[] stream = compact(ManualScanner.fromSource("Abc + 1"));
+        byte[] withoutEnd = Arrays.copyOf(stream, stream.length - 1);
+        CompactTokenReader reader = new CompactTokenReader(ByteBuffer.wrap(withoutEnd));
+        assertThrows(IllegalStateException.class, () -> {
+            while (reader.next()) { }
+        });
+    }
+
+    // Every cut of a stream, including ones inside a varint or a lexeme, is a format error that
+    // says where the stream ended, not an index error.
+    @Test
+    void everyTruncationIsAFormatError() {
+        String longName = "Abcdefghijklmnopqrstuvwxyzabcd";
+        byte[] stream = compact(ManualScanner.fromSource("## x\n".repeat(200) + longName + " + 123456 ;\n" + longName));
+        for (int length = 5; length < stream.length; length++) {
+            CompactTokenReader reader = new CompactTokenReader(ByteBuffer.wrap(Arrays.copyOf(stream, length)));
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> {
+                while (reader.next()) { }
+            }, "cut to " + length);
+            assertTrue(error.getMessage().startsWith("Token stream is truncated at "), error.getMessage());
+            int at = Integer.parseInt(error.getMessage().substring("Token stream is truncated at ".length()));
+            assertTrue(at <= length, error.getMessage() + ", cut to " + length);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CompactTokenReader(ByteBuffer.wrap(Arrays.copyOf(stream, 4))));
+    }
+
+    @Test
+    void overlongVarintIsAFormatError() {
+        byte[] stream = compact(ManualScanner.fromSource("Abc"));
+        // the identifier's offset delta, the byte after its tag, made six bytes long
+        byte[] damaged = new byte[stream.length + 5];
+        System.arraycopy(stream, 0, damaged, 0, 6);
+        Arrays.fill(damaged, 6, 11, (byte) 0x80);
+        System.arraycopy(stream, 6, damaged, 11, stream.length - 6);
+        CompactTokenReader reader = new CompactTokenReader(ByteBuffer.wrap(damaged));
+        IllegalStateException error = assertThrows(IllegalStateException.class, reader::next);
+        assertEquals("Corrupt token stream at 6: varint longer than 5 bytes", error.getMessage());
+    }
+}
@@ -0,0 +1,100 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Error codes, the error limit and the streaming listener behave alike for every engine.
+class ErrorLimitTest {
+    private static final String FLOOD = "@".repeat(5000) + " Abc";
+
+    @Test
+    void codesNameEachKindOfError() {
+        Lexer lexer = ManualScanner.fromSource(
+                "@ abc Abcdefghijklmnopqrstuvwxyzabcdefgh 1. 1.2.3 99999999999999999999");
+        lexer.scanTokens();
+        List<ErrorCode> codes = new ArrayList<>();
+        for (ErrorHandler.ErrorRecord error : lexer.getErrorHandler().getErrors()) codes.add(error.getCode());
+        // "1." leaves its '.' unscanned, which is then an invalid character of its own
+        assertEquals(List.of(ErrorCode.INVALID_CHAR, ErrorCode.LOWERCASE_IDENTIFIER, ErrorCode.IDENTIFIER_TOO_LONG,
+                ErrorCode.MISSING_FRACTION_DIGITS, ErrorCode.INVALID_CHAR, ErrorCode.MULTIPLE_DECIMAL_POINTS,
+                ErrorCode.INTEGER_OUT_OF_RANGE), codes);
+        ErrorHandler.ErrorRecord tooLong = lexer.getErrorHandler().getErrors().get(2);
+        assertEquals("Abcdefghij...", tooLong.getLexeme());
+        assertEquals(ErrorCode.IDENTIFIER_TOO_LONG.getReason(), tooLong.getReason());
+    }
+
+    @Test
+    void limitStopsPullScansForEveryEngine() {
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            Lexer lexer = Lexers.fromSource(engine, FLOOD);
+            lexer.getErrorHandler().setLimit(10);
+            assertEquals(TokenType.EOF, lexer.nextToken().getType(), engine.toString());
+            assertEquals(10, lexer.getErrorHandler().getErrors().size(), engine.toString());
+            assertTrue(lexer.getErrorHandler().limitReached(), engine.toString());
+        }
+    }
+
+    @Test
+    void limitStopsSinkScansForEveryEngine() throws IOException {
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            List<Lexer> lexers = List.of(Lexers.fromSource(engine, FLOOD),
+                    Lexers.fromReader(engine, new StringReader(FLOOD)));
+            for (Lexer lexer : lexers) {
+                lexer.getErrorHandler().setLimit(10);
+                StringWriter out = new StringWriter();
+                lexer.scan(new TextTokenSink(out));
+                assertEquals("", out.toString(), engine.toString());
+                assertEquals(10, lexer.getErrorHandler().getErrorCount(), engine.toString());
+                assertEquals(0, lexer.getErrorHandler().getSuppressedCount(), engine.toString());
+            }
+            Lexer buffered = Lexers.fromSource(engine, FLOOD);
+            buffered.getErrorHandler().setLimit(10);
+            assertEquals(0, buffered.scan(new TokenBuffer(FLOOD)).size(), engine.toString());
+        }
+    }
+
+    @Test
+    void listenerSeesTheKeptErrorsAsTheyAreReported() {
+        String text = ScanResults.randomSource(17, 2000) + " @ abc 1.";
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            Lexer kept = Lexers.fromSource(engine, text);
+            List<ErrorHandler.ErrorRecord> heard = new ArrayList<>();
+            kept.getErrorHandler().setListener(heard::add);
+            kept.scanTokens();
+            assertFalse(heard.isEmpty(), engine.toString());
+            assertEquals(kept.getErrorHandler().getErrors(), heard, engine.toString());
+
+            Lexer streamed = Lexers.fromSource(engine, text);
+            List<String> lines = new ArrayList<>();
+            streamed.getErrorHandler().setRetainErrors(false);
+            streamed.getErrorHandler().setListener(error -> lines.add(error.toString()));
+            streamed.scanTokens();
+            assertTrue(streamed.getErrorHandler().getErrors().isEmpty(), engine.toString());
+            assertEquals(heard.size(), streamed.getErrorHandler().getErrorCount(), engine.toString());
+            for (int i = 0; i < heard.size(); i++) assertEquals(heard.get(i).toString(), lines.get(i));
+        }
+    }
+
+    @Test
+    void errorsPastTheLimitAreOnlyCounted() {
+        ErrorHandler handler = new ErrorHandler();
+        List<ErrorHandler.ErrorRecord> heard = new ArrayList<>();
+        handler.setListener(heard::add);
+        handler.setLimit(2);
+        for (int i = 1; i <= 5; i++) handler.addError(ErrorCode.INVALID_CHAR, i, 1, "@");
+        assertEquals(2, handler.getErrors().size());
+        assertEquals(2, heard.size());
+        assertEquals(3, handler.getSuppressedCount());
+        assertEquals(5, handler.getErrorCount());
+        assertThrows(IllegalArgumentException.class, () -> handler.setLimit(0));
+    }
+}
@@ -0,0 +1,134 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// After every edit the lexer must hold what a full rescan of the edited text gives.
+class IncrementalLexerTest {
+    private static final String[] INSERTS = {
+        "", "A", "Bb ", "\n", "\r\n", "\r", "##", "x", "1.2", ".", " ", "@", "true", "Count + 1;\n", "e5", "-", "9",
+    };
+
+    private static void assertSameAsRescan(IncrementalLexer lexer, String where) {
+        ManualScanner full = ManualScanner.fromSource(lexer.getText());
+        assertEquals(ScanResults.describe(full.scanToBuffer(), full.getSymbolTable()),
+                     ScanResults.describe(lexer.getTokens(), lexer.getSymbolTable()), where);
+        assertEquals(ScanResults.describe(full.getSymbolTable()), ScanResults.describe(lexer.getSymbolTable()), where);
+        assertEquals(ScanResults.describe(full.getErrorHandler()), ScanResults.describe(lexer.getErrorHandler()), where);
+    }
+
+    @Test
+    void randomEditsMatchAFullRescan() {
+        Random random = new Random(10);
+        for (long seed = 0; seed < 8; seed++) {
+            IncrementalLexer lexer = new IncrementalLexer(ScanResults.randomSource(seed, 300));
+            for (int edit = 0; edit < 150; edit++) {
+                String text = lexer.getText();
+                int offset = random.nextInt(text.length() + 1);
+                int removed = Math.min(random.nextInt(8), text.length() - offset);
+                String inserted = INSERTS[random.nextInt(INSERTS.length)];
+                lexer.edit(offset, removed, inserted);
+                assertSameAsRescan(lexer, "seed " + seed + ", edit " + edit + ": [" + offset + "+" + removed + "] -> "
+                        + inserted.replace("\n", "\\n").replace("\r", "\\r"));
+            }
+        }
+    }
+
+    @Test
+    void editsThatJoinSplitAndRemoveLines() {
+        IncrementalLexer lexer = new IncrementalLexer("Abc = 1\nDef = 2.5\n## note\nGhi\n");
+        lexer.edit(7, 1, "");             // join the first two lines
+        assertSameAsRescan(lexer, "join");
+        lexer.edit(3, 0, "\r\n");         // split one
+        assertSameAsRescan(lexer, "split");
+        lexer.edit(0, lexer.getText().indexOf("##"), ""); // drop everything before the comment
+        assertSameAsRescan(lexer, "remove");
+        lexer.edit(0, 2, "");             // uncomment
+        assertSameAsRescan(lexer, "uncomment");
+        lexer.edit(lexer.getText().length(), 0, "Abc Abc");
+        assertSameAsRescan(lexer, "append");
+        lexer.edit(0, lexer.getText().length(), "");
+        assertSameAsRescan(lexer, "clear");
+    }
+
+    private static List<String> lexemes(IncrementalLexer lexer) {
+        List<String> lexemes = new ArrayList<>();
+        TokenBuffer tokens = lexer.getTokens();
+        for (int i = 0; i < tokens.size(); i++) lexemes.add(tokens.getLexeme(i) + "@" + tokens.getLine(i) + ":" + tokens.getColumn(i));
+        return lexemes;
+    }
+
+    // Edits that turn several tokens into one or one into several, within a line and across lines.
+    @Test
+    void editsThatMergeAndSplitTokens() {
+        IncrementalLexer lexer = new IncrementalLexer("Abc1 2 + 12 34\nX 1 .5\nDef\n7");
+        lexer.edit(4, 1, "");             // Abc1 2 -> Abc12
+        assertSameAsRescan(lexer, "merge identifier and number");
+        assertEquals(List.of("Abc12@1:1", "+@1:7", "12@1:9", "34@1:12", "X@2:1", "1@2:3", "5@2:6", "Def@3:1", "7@4:1"), lexemes(lexer));
+        int old = lexer.getSymbolTable().lookup("Abc1");
+        assertTrue(old < 0 || lexer.getSymbolTable().getFrequency(old) == 0);
+        lexer.edit(10, 1, "");            // 12 34 -> 1234
+        assertSameAsRescan(lexer, "merge numbers");
+        lexer.edit(lexer.getText().indexOf(" .5"), 1, ""); // 1 .5 -> 1.5
+        assertSameAsRescan(lexer, "merge into a float");
+        assertEquals(List.of("Abc12@1:1", "+@1:7", "1234@1:9", "X@2:1", "1.5@2:3", "Def@3:1", "7@4:1"), lexemes(lexer));
+
+        lexer.edit(10, 0, " ");           // 1234 -> 12 34
+        assertSameAsRescan(lexer, "split number");
+        lexer.edit(3, 0, "\n");           // Abc12 -> Abc / 12 on the next line
+        assertSameAsRescan(lexer, "split across lines");
+        assertEquals(List.of("Abc@1:1", "12@2:1", "+@2:4", "12@2:6", "34@2:9", "X@3:1", "1.5@3:3", "Def@4:1", "7@5:1"), lexemes(lexer));
+        lexer.edit(lexer.getText().indexOf("Def") - 1, 1, ""); // join "1.5" and "Def": 1.5Def
+        assertSameAsRescan(lexer, "join lines into one token run");
+        lexer.edit(2, 0, "## ");          // comment out the rest of the first line
+        assertSameAsRescan(lexer, "comment out");
+        lexer.edit(2, 3, "");             // and back
+        assertSameAsRescan(lexer, "uncomment");
+    }
+
+    @Test
+    void tokensOutsideTheChangeAreKeptOrShifted() {
+        Random random = new Random(11);
+        IncrementalLexer lexer = new IncrementalLexer(ScanResults.randomSource(3, 300));
+        for (int edit = 0; edit < 200; edit++) {
+            TokenBuffer tokens = lexer.getTokens();
+            int oldSize = tokens.size();
+            int[] oldStarts = new int[oldSize];
+            TokenType[] oldTypes = new TokenType[oldSize];
+            for (int i = 0; i < oldSize; i++) {
+                oldStarts[i] = tokens.getStart(i);
+                oldTypes[i] = tokens.getType(i);
+            }
+            String text = lexer.getText();
+            int offset = random.nextInt(text.length() + 1);
+            int removed = Math.min(random.nextInt(8), text.length() - offset);
+            String inserted = INSERTS[random.nextInt(INSERTS.length)];
+            IncrementalLexer.Change change = lexer.edit(offset, removed, inserted);
+
+            int first = change.getFirstToken();
+            assertEquals(oldSize - change.getRemovedTokens() + change.getInsertedTokens(), tokens.size());
+            for (int i = 0; i < first; i++) {
+                assertEquals(oldStarts[i], tokens.getStart(i));
+                assertEquals(oldTypes[i], tokens.getType(i));
+            }
+            int delta = inserted.length() - removed;
+            for (int i = first + change.getInsertedTokens(), old = first + change.getRemovedTokens(); i < tokens.size(); i++, old++) {
+                assertEquals(oldStarts[old] + delta, tokens.getStart(i));
+                assertEquals(oldTypes[old], tokens.getType(i));
+            }
+        }
+    }
+
+    @Test
+    void editOutsideTheTextIsRejected() {
+        IncrementalLexer lexer = new IncrementalLexer("Abc");
+        assertThrows(IndexOutOfBoundsException.class, () -> lexer.edit(2, 2, ""));
+        assertThrows(IndexOutOfBoundsException.class, () -> lexer.edit(-1, 0, "X"));
+    }
+}
@@ -0,0 +1,74 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Every engine, from every kind of input, through the one Lexer interface.
+class LexersTest {
+    // input the three engines read alike (JFlex differs on some malformed numbers and long names)
+    private static final String INPUT = "Count = 10 + Val1 * 3.14 ;\r\n## comment\nTotal : -5 , true @\n\n( Last ) 2.5e3";
+
+    private static List<String> strings(Lexer lexer) {
+        return lexer.scanTokens().stream().map(Token::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void everyEngineReadsEveryInputKindAlike(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("input.lang");
+        byte[] bytes = INPUT.getBytes(StandardCharsets.US_ASCII);
+        Files.write(file, bytes);
+        List<String> expected = strings(ManualScanner.fromSource(INPUT));
+        assertEquals(16, expected.size());
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            String where = engine.toString();
+            assertEquals(expected, strings(Lexers.fromSource(engine, INPUT)), where);
+            assertEquals(expected, strings(Lexers.fromBytes(engine, ByteBuffer.wrap(bytes))), where);
+            assertEquals(expected, strings(Lexers.fromReader(engine, new StringReader(INPUT))), where);
+            assertEquals(expected, strings(Lexers.fromStream(engine, new ByteArrayInputStream(bytes))), where);
+            assertEquals(expected, strings(Lexers.fromPath(engine, file)), where);
+        }
+    }
+
+    @Test
+    void pullPushAndIterationAgreeForEveryEngine() {
+        List<String> expected = strings(ManualScanner.fromSource(INPUT));
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            String where = engine.toString();
+            TokenBuffer pushed = Lexers.fromSource(engine, INPUT).scan(new TokenBuffer(INPUT));
+            List<String> buffered = new ArrayList<>();
+            for (int i = 0; i < pushed.size(); i++) buffered.add(pushed.toToken(i).toString());
+            assertEquals(expected, buffered, where);
+
+            Lexer lexer = Lexers.fromSource(engine, INPUT);
+            Iterator<Token> tokens = lexer.iterator();
+            assertEquals(expected.get(0), tokens.next().toString(), where);
+            assertEquals(expected.subList(1, 3), lexer.tokens().limit(2).map(Token::toString).collect(Collectors.toList()), where);
+            assertEquals(expected.get(3), lexer.nextToken().toString(), where);
+            assertEquals(expected.size() - 4, lexer.scanTokens().size(), where);
+            assertEquals(expected.size(), lexer.getStatistics().getTotalTokens(), where);
+            assertEquals(TokenType.EOF, lexer.nextToken().getType(), where);
+        }
+    }
+
+    @Test
+    void enginesAreNamedInAnyCase() {
+        assertEquals(Lexers.Engine.MANUAL, Lexers.Engine.parse("manual"));
+        assertEquals(Lexers.Engine.TABLE, Lexers.Engine.parse(" Table "));
+        assertEquals(Lexers.Engine.JFLEX, Lexers.Engine.parse("JFLEX"));
+        assertThrows(IllegalArgumentException.class, () -> Lexers.Engine.parse("regex"));
+    }
+}
@@ -0,0 +1,65 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LineIndexTest {
+    static final String SOURCE = "Abc = 1\r\nDef\rGhi\n\n  ## note\r\n\tJkl 2.5\r\r\nMno";
+
+    @Test
+    void lookedUpPositionsMatchTheCountedOnes() {
+        TokenBuffer counted = ManualScanner.fromSource(SOURCE).scan(new TokenBuffer(SOURCE));
+        TokenBuffer indexed = ManualScanner.fromSource(SOURCE).scanToBuffer();
+        assertEquals(counted.size(), indexed.size());
+        for (int i = 0; i < counted.size(); i++) {
+            assertEquals(counted.getLine(i), indexed.getLine(i), "line of token " + i);
+            assertEquals(counted.getColumn(i), indexed.getColumn(i), "column of token " + i);
+        }
+        // out of order too, so the previous-answer shortcut is bypassed
+        for (int i = counted.size() - 1; i >= 0; i--) {
+            assertEquals(counted.getLine(i), indexed.getLine(i));
+            assertEquals(counted.getColumn(i), indexed.getColumn(i));
+        }
+    }
+
+    @Test
+    void indexCoversEveryLineStart() {
+        ManualScanner scanner = ManualScanner.fromSource(SOURCE);
+        scanner.scan(TokenSink.NONE);
+        LineIndex lines = scanner.getLineIndex();
+        assertEquals(1, lines.getFirstLine());
+        assertEquals(scanner.getStatistics().getLines(), lines.getLastLine());
+        assertEquals(0, lines.startOf(1));
+        assertEquals(SOURCE.indexOf("Def"), lines.startOf(2));
+        assertEquals(SOURCE.indexOf("Ghi"), lines.startOf(3));
+        assertEquals(SOURCE.indexOf("Mno"), lines.startOf(lines.getLastLine()));
+        assertEquals(lines.getLastLine(), lines.lineOf(SOURCE.length()));
+    }
+
+    @Test
+    void chunkScansCountFromTheirFirstLine() {
+        int from = SOURCE.indexOf("Ghi");
+        ManualScanner scanner = new ManualScanner(SOURCE, from, SOURCE.length(), 3);
+        TokenBuffer tokens = scanner.scanToBuffer();
+        TokenBuffer whole = ManualScanner.fromSource(SOURCE).scanToBuffer();
+        int offset = whole.size() - tokens.size();
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(whole.getLine(offset + i), tokens.getLine(i));
+            assertEquals(whole.getColumn(offset + i), tokens.getColumn(i));
+        }
+    }
+
+    @Test
+    void appendStoresThePositionsItShifts() {
+        TokenBuffer target = new TokenBuffer(SOURCE);
+        TokenBuffer part = ManualScanner.fromSource(SOURCE).scanToBuffer();
+        int[] symbolMap = new int[16];
+        for (int i = 0; i < symbolMap.length; i++) symbolMap[i] = i;
+        target.append(part, 10, symbolMap);
+        for (int i = 0; i < part.size(); i++) {
+            assertEquals(part.getLine(i) + 10, target.getLine(i));
+            assertEquals(part.getColumn(i), target.getColumn(i));
+        }
+    }
+}
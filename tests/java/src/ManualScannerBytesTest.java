@@ -0,0 +1,70 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Scanning ASCII bytes in place, mapped or not, must give what scanning the decoded file gives.
+class ManualScannerBytesTest {
+    private static final String INPUT = "Count = 10 + Val1 * 3.14 ;\r\n## comment\rTotal : -5 , true @\n\r\nLast ## tail";
+
+    private static List<String> tokens(ManualScanner scanner) {
+        List<String> tokens = new ArrayList<>();
+        for (Token token : scanner) tokens.add(token.toString());
+        return tokens;
+    }
+
+    @Test
+    void bytesMappedAndDecodedInputAgree(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("input.lang");
+        Files.write(file, INPUT.getBytes(StandardCharsets.US_ASCII));
+        List<String> expected = tokens(new ManualScanner(file.toString()));
+        assertEquals(13, expected.size());
+        assertEquals(expected, tokens(ManualScanner.mapped(file.toString())));
+        assertEquals(expected, tokens(ManualScanner.fromBytes(ByteBuffer.wrap(Files.readAllBytes(file)))));
+
+        // only the buffer's remaining bytes are scanned, wherever they sit
+        ByteBuffer direct = ByteBuffer.allocateDirect(INPUT.length() + 10);
+        direct.put("XXXXX".getBytes(StandardCharsets.US_ASCII)).put(INPUT.getBytes(StandardCharsets.US_ASCII)).put((byte) 'Y');
+        direct.flip().position(5).limit(5 + INPUT.length());
+        assertEquals(expected, tokens(ManualScanner.fromBytes(direct)));
+    }
+
+    // Byte mode does not decode: each byte of a UTF-8 character is its own Latin-1 char.
+    @Test
+    void nonAsciiBytesReadAsLatin1() {
+        byte[] utf8 = "Ab \u00e9 Cd".getBytes(StandardCharsets.UTF_8);
+        ManualScanner bytes = ManualScanner.fromBytes(ByteBuffer.wrap(utf8));
+        ManualScanner decoded = ManualScanner.fromSource(new String(utf8, StandardCharsets.UTF_8));
+        assertEquals("<IDENTIFIER, \"Cd\", Line: 1, Col: 7>", tokens(bytes).get(1));
+        assertEquals("<IDENTIFIER, \"Cd\", Line: 1, Col: 6>", tokens(decoded).get(1));
+        assertEquals(List.of("1:4 \u00c3", "1:5 \u00a9"), errors(bytes));
+        assertEquals(List.of("1:4 \u00e9"), errors(decoded));
+    }
+
+    private static List<String> errors(ManualScanner scanner) {
+        List<String> errors = new ArrayList<>();
+        for (ErrorHandler.ErrorRecord error : scanner.getErrorHandler().getErrors()) {
+            assertEquals(ErrorCode.INVALID_CHAR, error.getCode());
+            errors.add(error.getLine() + ":" + error.getColumn() + " " + error.getLexeme());
+        }
+        return errors;
+    }
+
+    @Test
+    void viewReadsBytesAsChars() {
+        AsciiCharSequence text = new AsciiCharSequence(ByteBuffer.wrap("Abc Def".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(7, text.length());
+        assertEquals('D', text.charAt(4));
+        assertEquals("Def", text.subSequence(4, 7).toString());
+        assertEquals("Abc Def", text.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Pulling tokens one at a time must give what scanTokens() collects, and stopping early must
+// leave the rest of the input to the next pull.
+class ManualScannerPullTest {
+    private static final String INPUT = "Count = 10 + Val1 * 3.14 ;\n## comment\nTotal : -5 , true @\n\nLast";
+
+    @TempDir
+    Path directory;
+
+    private ManualScanner scanner(String text) throws IOException {
+        Path file = directory.resolve("input.lang");
+        Files.writeString(file, text);
+        return new ManualScanner(file.toString());
+    }
+
+    private static List<String> strings(List<Token> tokens) {
+        return tokens.stream().map(Token::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void pulledTokensMatchScanTokens() throws IOException {
+        List<Token> pulled = new ArrayList<>();
+        ManualScanner scanner = scanner(INPUT);
+        Token token;
+        while ((token = scanner.nextToken()).getType() != TokenType.EOF) pulled.add(token);
+        assertEquals(strings(scanner(INPUT).scanTokens()), strings(pulled));
+        assertEquals(13, pulled.size());
+        // EOF is sticky
+        assertEquals(TokenType.EOF, scanner.nextToken().getType());
+        assertEquals(TokenType.EOF, scanner.nextToken().getType());
+    }
+
+    @Test
+    void iteratorAndStreamCanStopEarly() throws IOException {
+        List<String> all = strings(scanner(INPUT).scanTokens());
+        ManualScanner scanner = scanner(INPUT);
+        Iterator<Token> tokens = scanner.iterator();
+        assertTrue(tokens.hasNext());
+        assertTrue(tokens.hasNext());
+        assertEquals(all.get(0), tokens.next().toString());
+        assertEquals(all.get(1), scanner.nextToken().toString());
+        assertEquals(all.subList(2, 4), scanner.tokens().limit(2).map(Token::toString).collect(Collectors.toList()));
+        List<String> rest = new ArrayList<>();
+        for (Token token : scanner) rest.add(token.toString());
+        assertEquals(all.subList(4, all.size()), rest);
+    }
+
+    @Test
+    void exhaustedIteratorThrows() throws IOException {
+        Iterator<Token> tokens = scanner("").iterator();
+        assertFalse(tokens.hasNext());
+        assertThrows(NoSuchElementException.class, tokens::next);
+    }
+}
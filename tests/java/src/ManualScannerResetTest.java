@@ -0,0 +1,182 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A reset scanner must give exactly what a fresh scanner gives for the same input.
+class ManualScannerResetTest {
+    static final String[] INPUTS = {
+        "Count = 10 + Val1 * 3.14 ;\n## comment\nTotal : -5 , true\n",
+        "lower @ 1.2.3 Abcdefghijabcdefghijabcdefghijabcdefghij 99999999999999999999\r\nX $ 1.",
+        "",
+        "   \t  ## only a comment",
+        "Zeta\r\rEta\n\nTheta ( [ { } ] ) 1e5 +2.5e-3 false\n",
+        "Count Count Other\n## x\nCount\n",
+    };
+
+    // Everything a scan produces: tokens with positions and values, statistics, symbols, errors.
+    static String describe(ManualScanner scanner) {
+        return describe(scanner.scanToBuffer()) + stateOf(scanner);
+    }
+
+    static String describe(TokenBuffer tokens) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.append(tokens.getType(i)).append(' ').append(tokens.getLexeme(i))
+               .append(" @").append(tokens.getStart(i)).append(' ').append(tokens.getLine(i)).append(':').append(tokens.getColumn(i))
+               .append(" #").append(tokens.getSymbolId(i)).append(" =").append(tokens.getIntegerValue(i)).append('\n');
+        }
+        return out.toString();
+    }
+
+    static String stateOf(ManualScanner scanner) {
+        StringBuilder out = new StringBuilder();
+        ScanStatistics statistics = scanner.getStatistics();
+        out.append("tokens=").append(statistics.getTotalTokens()).append(" lines=").append(statistics.getLines())
+           .append(" comments=").append(statistics.getCommentsRemoved());
+        for (TokenType type : TokenType.values()) out.append(' ').append(statistics.getTokenCount(type));
+        SymbolTable symbols = scanner.getSymbolTable();
+        for (int id = 0; id < symbols.size(); id++) {
+            out.append("\nsymbol ").append(id).append(' ').append(symbols.getName(id))
+               .append(' ').append(symbols.getFirstLine(id)).append(' ').append(symbols.getFrequency(id));
+        }
+        ErrorHandler errors = scanner.getErrorHandler();
+        out.append("\nerrors=").append(errors.getErrorCount()).append(" suppressed=").append(errors.getSuppressedCount());
+        for (ErrorHandler.ErrorRecord error : errors.getErrors()) out.append('\n').append(error);
+        return out.toString();
+    }
+
+    @Test
+    void resetMatchesFreshScannerForEveryInputOrder() {
+        ManualScanner reused = new ManualScanner();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < INPUTS.length; i++) {
+                String input = INPUTS[(i * 5 + round) % INPUTS.length];
+                assertEquals(describe(ManualScanner.fromSource(input)), describe(reused.reset(input)), input);
+            }
+        }
+    }
+
+    @Test
+    void nothingLeaksIntoTheNextInput() {
+        ManualScanner scanner = ManualScanner.fromSource(INPUTS[1] + INPUTS[0] + INPUTS[5]);
+        scanner.scan(TokenSink.NONE);
+        assertTrue(scanner.getSymbolTable().size() > 0);
+        assertTrue(scanner.getErrorHandler().hasErrors());
+
+        scanner.reset("");
+        scanner.scan(TokenSink.NONE);
+        assertEquals(stateOf(emptyScan()), stateOf(scanner));
+        assertEquals(0, scanner.getSymbolTable().size());
+        assertEquals(-1, scanner.getSymbolTable().lookup("Count"));
+        assertEquals(0, scanner.getErrorHandler().getErrorCount());
+        assertTrue(scanner.getErrorHandler().getErrors().isEmpty());
+
+        // ids and first lines start over
+        scanner.reset("\n\nCount");
+        Token token = scanner.nextToken();
+        assertEquals(0, token.getSymbolId());
+        assertEquals(3, token.getLine());
+        assertEquals(1, token.getColumn());
+        assertEquals(3, scanner.getSymbolTable().getFirstLine(0));
+    }
+
+    private static ManualScanner emptyScan() {
+        ManualScanner scanner = ManualScanner.fromSource("");
+        scanner.scan(TokenSink.NONE);
+        return scanner;
+    }
+
+    @Test
+    void commentEndsAreNotCarriedOverFromTheLongerInput() {
+        ManualScanner scanner = ManualScanner.fromSource("Abc\n".repeat(20) + "## tail\nX");
+        scanner.scan(TokenSink.NONE);
+        scanner.reset("## x\nFoo");
+        Token token = scanner.nextToken();
+        assertEquals(TokenType.IDENTIFIER, token.getType());
+        assertEquals("Foo", token.getLexeme());
+        assertEquals(2, token.getLine());
+    }
+
+    @Test
+    void resetAcrossStringsBytesAndFilesReusesTheFileBuffer(@TempDir Path directory) throws IOException {
+        ManualScanner reused = new ManualScanner();
+        for (int i = 0; i < INPUTS.length; i++) {
+            byte[] bytes = INPUTS[i].getBytes(StandardCharsets.US_ASCII);
+            Path file = directory.resolve("input" + i + ".lang");
+            Files.write(file, bytes);
+            String expected = describe(ManualScanner.fromBytes(ByteBuffer.wrap(bytes)));
+            assertEquals(expected, describe(reused.reset(file)), INPUTS[i]);
+            assertEquals(expected, describe(reused.reset(ByteBuffer.wrap(bytes))), INPUTS[i]);
+            assertEquals(describe(ManualScanner.fromSource(INPUTS[i])), describe(reused.reset(INPUTS[i])), INPUTS[i]);
+        }
+        // a long file after short ones grows the buffer, a short one after it reads only its own bytes
+        Path longFile = directory.resolve("long.lang");
+        Files.write(longFile, INPUTS[0].repeat(5000).getBytes(StandardCharsets.US_ASCII));
+        Path shortFile = directory.resolve("short.lang");
+        Files.write(shortFile, "Short".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(describe(ManualScanner.fromSource(INPUTS[0].repeat(5000))), describe(reused.reset(longFile)));
+        assertEquals(describe(ManualScanner.fromSource("Short")), describe(reused.reset(shortFile)));
+    }
+
+    @Test
+    void resetKeepsErrorSettings() {
+        ManualScanner scanner = new ManualScanner();
+        scanner.getErrorHandler().setLimit(1);
+        scanner.reset("@ @ @ Abc");
+        scanner.scan(TokenSink.NONE);
+        assertEquals(1, scanner.getErrorHandler().getErrors().size());
+        assertTrue(scanner.getErrorHandler().limitReached());
+
+        scanner.reset("Abc @ Def @");
+        assertEquals(0, scanner.getErrorHandler().getErrorCount());
+        scanner.scan(TokenSink.NONE);
+        assertEquals(1, scanner.getErrorHandler().getErrors().size());
+        assertEquals(1, scanner.getStatistics().getTotalTokens());
+    }
+
+    @Test
+    void tokenBufferCanBeReusedAcrossResets() {
+        ManualScanner scanner = new ManualScanner();
+        TokenBuffer buffer = new TokenBuffer("");
+        for (String input : INPUTS) {
+            TokenBuffer expected = ManualScanner.fromSource(input).scanToBuffer();
+            TokenBuffer actual = scanner.reset(input).scanToBuffer(buffer);
+            assertSame(buffer, actual);
+            assertSame(input, actual.getSource());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.toToken(i).toString(), actual.toToken(i).toString());
+            }
+        }
+    }
+
+    @Test
+    void scannedBuffersKeepTheirPositionsAfterReset() {
+        String input = "Abc\n\n   Def 1\r\nGhi";
+        ScannerPool pool = new ScannerPool(1);
+        ManualScanner scanner = pool.acquire(input);
+        TokenBuffer tokens = scanner.scanToBuffer();
+        LineIndex lines = scanner.getLineIndex();
+
+        pool.release(scanner);
+        assertSame(scanner, pool.acquire("X\nY\nZ\n"));
+        scanner.scan(TokenSink.NONE);
+        scanner.reset("Other");
+        scanner.scanToBuffer();
+        assertEquals(3, tokens.getLine(1));
+        assertEquals(4, tokens.getColumn(1));
+        assertEquals(4, tokens.getLine(3));
+        assertEquals(4, lines.getLastLine());
+        assertEquals(describe(ManualScanner.fromSource(input).scanToBuffer()), describe(tokens));
+    }
+}
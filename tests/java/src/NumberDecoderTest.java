@@ -0,0 +1,140 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Decoded values must be exactly what Long.parseLong and Double.parseDouble give.
+class NumberDecoderTest {
+    private final NumberDecoder decoder = new NumberDecoder();
+
+    private void assertDecodes(String literal) {
+        decoder.decode(literal, 0, literal.length());
+        double expected = Double.parseDouble(literal);
+        double actual = decoder.doubleValue(literal, 0, literal.length());
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual),
+                () -> literal + ": expected " + expected + " but was " + actual);
+    }
+
+    @Test
+    void exactAndFastPathValues() {
+        for (String literal : new String[] {
+                "0.0", "-0.0", "0.1", "-0.01", "3.14", "1.5e-10", "2.5E+3", "123.456e2", "1e22", "1e23", "9.5e15",
+                "0.000000000000000000000000000001", "123456789012345678901234567890.5", "7.3177701707893310e15" }) {
+            assertDecodes(literal);
+        }
+    }
+
+    @Test
+    void subnormalValues() {
+        for (String literal : new String[] {
+                "4.9e-324", "5e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "2.4703282292062329e-324",
+                "1e-323", "2.2250738585072009e-308", "2.2250738585072011e-308", "2.2250738585072012e-308",
+                "2.2250738585072014e-308", "1e-320", "-3.5e-315", "1e-400", "-1e-400" }) {
+            assertDecodes(literal);
+        }
+    }
+
+    @Test
+    void halfwayValues() {
+        for (String literal : new String[] {
+                // 2^53 + 1 and 1 + 2^-53 are exactly halfway between two doubles; ties go to even
+                "9007199254740993.0", "9007199254740995.0", "9007199254740993.00000000000000000001",
+                "1.00000000000000011102230246251565404236316680908203125",
+                "1.00000000000000011102230246251565404236316680908203124",
+                "1.00000000000000011102230246251565404236316680908203126",
+                "4503599627370496.5", "4503599627370497.5", "9999999999999999999.9999e-5",
+                "8.988465674311580536566680e307" }) {
+            assertDecodes(literal);
+        }
+    }
+
+    @Test
+    void overflowingValues() {
+        for (String literal : new String[] {
+                "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "1e309", "-1e309",
+                "1e400", "100000000000000000000000.0e99999999" }) {
+            assertDecodes(literal);
+        }
+    }
+
+    @Test
+    void randomLiterals() {
+        Random random = new Random(13);
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder literal = new StringBuilder();
+            if (random.nextInt(4) == 0) literal.append('-');
+            int integerDigits = 1 + random.nextInt(random.nextBoolean() ? 5 : 25);
+            for (int d = 0; d < integerDigits; d++) literal.append((char) ('0' + random.nextInt(10)));
+            literal.append('.');
+            int fractionDigits = 1 + random.nextInt(random.nextBoolean() ? 4 : 25);
+            for (int d = 0; d < fractionDigits; d++) literal.append((char) ('0' + random.nextInt(10)));
+            if (random.nextBoolean()) {
+                literal.append(random.nextBoolean() ? 'e' : 'E');
+                if (random.nextBoolean()) literal.append('-');
+                literal.append(random.nextInt(random.nextBoolean() ? 30 : 340));
+            }
+            assertDecodes(literal.toString());
+        }
+    }
+
+    @Test
+    void shortestRepresentationsOfRandomDoubles() {
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            assertDecodes(Double.toString(value));
+        }
+    }
+
+    @Test
+    void integersSaturateOnOverflow() {
+        String[][] cases = {
+            { "0", "0" }, { "-0", "0" }, { "+42", "42" }, { "00000000000000000000009", "9" },
+            { "9223372036854775807", "9223372036854775807" }, { "9223372036854775808", "9223372036854775807" },
+            { "-9223372036854775808", "-9223372036854775808" }, { "-9223372036854775809", "-9223372036854775808" },
+            { "18446744073709551616", "9223372036854775807" }, { "99999999999999999999999999", "9223372036854775807" },
+        };
+        for (String[] c : cases) {
+            decoder.decode(c[0], 0, c[0].length());
+            assertEquals(Long.parseLong(c[1]), decoder.longValue(), c[0]);
+            boolean fits;
+            try {
+                Long.parseLong(c[0]);
+                fits = true;
+            } catch (NumberFormatException e) {
+                fits = false;
+            }
+            assertEquals(!fits, decoder.overflows(), c[0]);
+        }
+    }
+
+    // the digits after a second dot are dropped, and so is an exponent without digits
+    @Test
+    void malformedLexemesDecodeAsTheScannerReadsThem() {
+        String[][] cases = { { "1.2.3", "1.2" }, { "1.5e", "1.5" }, { "-2.5E+", "-2.5" }, { "1.2.3e2", "1.2e2" }, { "1.", "1" } };
+        for (String[] c : cases) {
+            decoder.decode(c[0], 0, c[0].length());
+            assertEquals(Double.parseDouble(c[1]), decoder.doubleValue(c[0], 0, c[0].length()), c[0]);
+        }
+    }
+
+    @Test
+    void everyEngineStoresTheDecodedValues() {
+        String text = ScanResults.randomSource(13, 3000);
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            TokenBuffer tokens = Lexers.fromSource(engine, text).scan(new TokenBuffer(text));
+            for (int i = 0; i < tokens.size(); i++) {
+                if (tokens.getType(i) != TokenType.INTEGER_LITERAL && tokens.getType(i) != TokenType.FLOAT_LITERAL) continue;
+                String lexeme = tokens.getLexeme(i);
+                decoder.decode(lexeme, 0, lexeme.length());
+                if (tokens.getType(i) == TokenType.INTEGER_LITERAL) {
+                    assertEquals(decoder.longValue(), tokens.getIntegerValue(i), engine + " " + lexeme);
+                } else {
+                    assertEquals(decoder.doubleValue(lexeme, 0, lexeme.length()), tokens.getFloatValue(i), engine + " " + lexeme);
+                }
+            }
+        }
+    }
+}
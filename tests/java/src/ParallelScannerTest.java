@@ -0,0 +1,69 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+// Chunked scanning must give what one ManualScanner gives for the whole text, wherever the
+// chunk boundaries fall.
+class ParallelScannerTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final int[] CHUNK_SIZES = { 1, 7, 64, 1000, 1 << 20 };
+
+    @AfterAll
+    static void stopPool() {
+        POOL.shutdown();
+    }
+
+    private static void assertSameAsManual(CharSequence text, int... chunkSizes) {
+        ManualScanner manual = ManualScanner.fromSource(text);
+        String expected = ScanResults.describe(manual.scanToBuffer(), manual.getSymbolTable());
+        for (int chunkSize : chunkSizes) {
+            ParallelScanner parallel = new ParallelScanner(text, POOL, chunkSize);
+            String actual = ScanResults.describe(parallel.scan(), parallel.getSymbolTable());
+            String where = "chunk size " + chunkSize;
+            assertEquals(expected, actual, where);
+            assertEquals(ScanResults.describe(manual.getSymbolTable()), ScanResults.describe(parallel.getSymbolTable()), where);
+            assertEquals(ScanResults.describe(manual.getErrorHandler()), ScanResults.describe(parallel.getErrorHandler()), where);
+            assertEquals(ScanResults.describe(manual.getStatistics()), ScanResults.describe(parallel.getStatistics()), where);
+        }
+    }
+
+    @Test
+    void matchesManualScannerOnRandomText() {
+        for (long seed = 0; seed < 20; seed++) assertSameAsManual(ScanResults.randomSource(seed, 400), CHUNK_SIZES);
+    }
+
+    @Test
+    void matchesManualScannerOnBytes() {
+        byte[] bytes = ScanResults.randomSource(99, 2000).getBytes(StandardCharsets.US_ASCII);
+        assertSameAsManual(new AsciiCharSequence(ByteBuffer.wrap(bytes)), CHUNK_SIZES);
+    }
+
+    @Test
+    void edgeCases() {
+        for (String text : new String[] { "", "\n", "\n\n\n", "Abc", "Abc\n", "## only\n## comments", "\r\n\r\nX\r\n" }) {
+            assertSameAsManual(text, CHUNK_SIZES);
+        }
+    }
+
+    // Boundaries are only ever cut after a '\n': a target inside a comment, between '\r' and
+    // '\n', or on a line ended by a lone '\r' must move on to the next '\n'.
+    @Test
+    void boundariesInsideCommentsAndLineBreaks() {
+        String text = "Abc ## comment with Words 1.5 @ and more\r\n"
+                + "## whole line comment\r\n"
+                + "Def 2 ## ends at a lone CR\rGhi 3.25\r"
+                + "##\r\n\r\n"
+                + "Abc @ ## last\r\nDef";
+        int[] everySize = new int[text.length() + 1];
+        for (int i = 0; i < everySize.length; i++) everySize[i] = i + 1;
+        assertSameAsManual(text, everySize);
+        assertSameAsManual(text.replace("\r\n", "\n"), everySize);
+        assertSameAsManual(text.replace("\r\n", "\r"), everySize);
+    }
+}
@@ -0,0 +1,146 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScanDaemonTest {
+    private ScanDaemon daemon;
+
+    private Socket start(ScanDaemon configured) throws IOException {
+        daemon = configured.bind(0);
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                // closed by shutdown()
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    @AfterEach
+    void stop() {
+        if (daemon != null) daemon.shutdown();
+    }
+
+    private static void send(Socket socket, String text) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    // One response line without its \n, or null at end of stream.
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    // An OK response's token stream decoded to text, with its error lines.
+    private static String readOk(InputStream in) throws IOException {
+        String[] header = readLine(in).split(" ");
+        assertEquals("OK", header[0]);
+        CompactTokenReader tokens = new CompactTokenReader(ByteBuffer.wrap(in.readNBytes(Integer.parseInt(header[1]))));
+        StringBuilder out = new StringBuilder();
+        while (tokens.next()) out.append(tokens.getType()).append(' ').append(tokens.getLexeme()).append('\n');
+        for (int i = Integer.parseInt(header[2]); i > 0; i--) out.append(readLine(in)).append('\n');
+        return out.toString();
+    }
+
+    @Test
+    void oversizedPayloadIsSkippedNotRunAsRequests() throws IOException {
+        Socket socket = start(new ScanDaemon(Lexers.Engine.MANUAL, 1, 2).setMaxRequestBytes(16));
+        String payload = "Abc\nPATH /etc/hostname\nSOURCE 1\nX";
+        send(socket, "SOURCE " + payload.length() + "\n" + payload + "SOURCE 3\nDef");
+        InputStream in = socket.getInputStream();
+        assertTrue(readLine(in).startsWith("ERROR Request too large"));
+        String next = readOk(in);
+        assertTrue(next.contains("Def"), next);
+        assertEquals(-1, inputAfter(socket));
+    }
+
+    @Test
+    void unparsableSizeClosesTheConnection() throws IOException {
+        Socket socket = start(new ScanDaemon(Lexers.Engine.MANUAL, 1, 2));
+        send(socket, "SOURCE x\nPATH /etc/hostname\n");
+        InputStream in = socket.getInputStream();
+        assertTrue(readLine(in).startsWith("ERROR Invalid size"));
+        assertEquals(null, readLine(in));
+    }
+
+    @Test
+    void shutdownAndTcpPathAreRefusedUnlessAllowed(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("input.lang");
+        Files.writeString(file, "Abc 1");
+        Socket socket = start(new ScanDaemon(Lexers.Engine.MANUAL, 1, 2));
+        send(socket, "SHUTDOWN\nPATH " + file + "\nSOURCE 3\nDef");
+        InputStream in = socket.getInputStream();
+        assertTrue(readLine(in).startsWith("ERROR SHUTDOWN is disabled"));
+        assertTrue(readLine(in).startsWith("ERROR PATH is disabled"));
+        assertTrue(readOk(in).contains("Def"));
+    }
+
+    @Test
+    void allowedShutdownAndTcpPathAreServed(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("input.lang");
+        Files.writeString(file, "Abc 1");
+        Socket socket = start(new ScanDaemon(Lexers.Engine.MANUAL, 1, 2).setAllowShutdown(true).setAllowTcpPath(true));
+        send(socket, "PATH " + file + "\nSHUTDOWN\n");
+        InputStream in = socket.getInputStream();
+        assertEquals("IDENTIFIER Abc\nINTEGER_LITERAL 1\n", readOk(in));
+        assertEquals("OK 0 0", readLine(in));
+        assertEquals(null, readLine(in));
+    }
+
+    // Nothing more is sent once the client stops writing.
+    private static int inputAfter(Socket socket) throws IOException {
+        socket.shutdownOutput();
+        return socket.getInputStream().read();
+    }
+
+    @Test
+    void socketFileIsOwnerOnlyAndNothingIsLeftBehind(@TempDir Path dir) throws IOException {
+        Path socketPath = dir.resolve("daemon.sock");
+        Files.writeString(socketPath, "stale");
+        daemon = new ScanDaemon(Lexers.Engine.MANUAL, 1, 2).bind(socketPath);
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socketPath)));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(socketPath), files.collect(Collectors.toList()));
+        }
+        // still the listening socket after the rename
+        try (SocketChannel client = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            assertTrue(client.isConnected());
+        }
+        daemon.shutdown();
+        assertFalse(Files.exists(socketPath));
+    }
+}
@@ -0,0 +1,99 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// Each finished scan is counted once, with the numbers its own statistics report.
+class ScanMetricsTest {
+    private static final String TEXT = ScanResults.randomSource(18, 3000) + " @ abc";
+
+    @AfterEach
+    void stopCounting() {
+        ScanMetrics.disable();
+        ScanMetrics.get().reset();
+    }
+
+    @Test
+    void everyEngineReportsOnceWhenItReachesTheEnd() {
+        ScanMetrics.enable();
+        ScanMetrics metrics = ScanMetrics.get();
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            metrics.reset();
+            Lexer lexer = Lexers.fromSource(engine, TEXT);
+            lexer.nextToken();
+            assertEquals(0, metrics.getScanCount(), engine + " before the end");
+            lexer.scanTokens();
+            lexer.nextToken();
+            assertEquals(1, metrics.getScanCount(), engine.toString());
+
+            ScanStatistics statistics = lexer.getStatistics();
+            assertEquals(TEXT.length(), metrics.getBytesScanned(), engine.toString());
+            assertEquals(statistics.getTotalTokens(), metrics.getTokenCount(), engine.toString());
+            assertEquals(lexer.getErrorHandler().getErrorCount(), metrics.getErrorCount(), engine.toString());
+            assertEquals(statistics.getCommentsRemoved(), metrics.getCommentCount(), engine.toString());
+            assertEquals(statistics.getLines(), metrics.getLineCount(), engine.toString());
+            for (TokenType type : new TokenType[] { TokenType.IDENTIFIER, TokenType.INTEGER_LITERAL, TokenType.PUNCTUATOR }) {
+                assertEquals(statistics.getTokenCount(type), metrics.getTokenCountsByType().get(type.name()), engine + " " + type);
+            }
+            assertEquals(lexer.getSymbolTable().size(), metrics.getLastSymbolTableSize(), engine.toString());
+            assertTrue(metrics.getScanTimeNanos() > 0, engine.toString());
+        }
+    }
+
+    @Test
+    void yylexRefillsAreCounted() throws Exception {
+        ScanMetrics.enable();
+        Lexer lexer = Lexers.fromReader(Lexers.Engine.JFLEX, new StringReader(TEXT.repeat(4)));
+        lexer.scan(new TokenBuffer(TEXT.repeat(4)));
+        // the text is larger than one of Yylex's buffers
+        assertTrue(ScanMetrics.get().getBufferRefillCount() > 1);
+    }
+
+    @Test
+    void nothingIsCountedWhileDisabled() {
+        ScanMetrics.disable();
+        for (Lexers.Engine engine : Lexers.Engine.values()) Lexers.fromSource(engine, TEXT).scanTokens();
+        assertEquals(0, ScanMetrics.get().getScanCount());
+        assertEquals(0, ScanMetrics.get().getTokenCount());
+    }
+
+    @Test
+    void countersArePublishedOverJmx() throws Exception {
+        ScanMetrics.enable();
+        ManualScanner.fromSource(TEXT).scanTokens();
+        ObjectName name = new ObjectName(ScanMetrics.OBJECT_NAME);
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ScanCount"));
+        assertEquals(true, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled"));
+    }
+
+    // Every engine starts its clock when the first token is asked for, not when it is created.
+    @Test
+    void timeBeforeTheFirstTokenIsNotCounted() throws Exception {
+        ScanMetrics.enable();
+        List<Lexer> lexers = new ArrayList<>();
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            lexers.add(Lexers.fromSource(engine, "Abc + 1"));
+            lexers.add(Lexers.fromReader(engine, new StringReader("Abc + 1")));
+        }
+        ManualScanner reset = new ManualScanner();
+        reset.reset("Abc + 1");
+        lexers.add(reset);
+        Thread.sleep(300);
+        for (Lexer lexer : lexers) {
+            ScanMetrics.get().reset();
+            lexer.scanTokens();
+            assertEquals(1, ScanMetrics.get().getScanCount());
+            assertTrue(ScanMetrics.get().getScanTimeNanos() < TimeUnit.MILLISECONDS.toNanos(300),
+                    lexer.getClass().getSimpleName() + " counted " + ScanMetrics.get().getScanTimeNanos() + " ns");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package src;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// Shared by the tests that compare an engine or a cached/incremental result with a fresh
+// ManualScanner scan: random CustomLang text, and everything a scan produces as one string.
+final class ScanResults {
+    private static final String[] PIECES = {
+        "Count", "Val1", "Zz9", "Abcdefghijabcdefghijabcdefghijabcdefghij", "lower", "true", "false",
+        "0", "10", "-5", "+100", "99999999999999999999", "-9223372036854775808", "3.14", "-0.01",
+        "1.5e-10", "2.5E+3", "1.2.3", "1.", "7e", "4.9e-324", "1.7976931348623159e308",
+        "+", "-", "*", "/", "%", "(", ")", "{", "}", "[", "]", ",", ";", ":", "@", "$", "=",
+        "## comment", "##", " ", " ", "  ", "\t", "\n", "\n", "\r\n", "\r",
+    };
+
+    private ScanResults() { }
+
+    static String randomSource(long seed, int pieces) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+            // mostly separated, sometimes run together
+            if (random.nextInt(4) != 0) text.append(' ');
+        }
+        return text.toString();
+    }
+
+    // Tokens with offsets, positions, symbol names and decoded values.
+    static String describe(TokenBuffer tokens, SymbolTable symbols) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.getType(i);
+            out.append(type).append(' ').append(tokens.getLexeme(i))
+               .append(" @").append(tokens.getStart(i)).append('+').append(tokens.getLength(i))
+               .append(' ').append(tokens.getLine(i)).append(':').append(tokens.getColumn(i));
+            int id = tokens.getSymbolId(i);
+            if (id >= 0) out.append(" symbol ").append(symbols.getName(id));
+            if (type == TokenType.INTEGER_LITERAL) out.append(" = ").append(tokens.getIntegerValue(i));
+            if (type == TokenType.FLOAT_LITERAL) out.append(" = ").append(tokens.getFloatValue(i));
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    // Names in use, with their first line and frequency; ids are left out, as merged and
+    // incrementally updated tables may number them differently.
+    static String describe(SymbolTable symbols) {
+        Map<String, String> used = new TreeMap<>();
+        for (int id = 0; id < symbols.size(); id++) {
+            if (symbols.getFrequency(id) > 0) used.put(symbols.getName(id), symbols.getFirstLine(id) + "x" + symbols.getFrequency(id));
+        }
+        return used.toString();
+    }
+
+    static String describe(ErrorHandler errors) {
+        StringBuilder out = new StringBuilder();
+        for (ErrorHandler.ErrorRecord error : errors.getErrors()) out.append(error).append('\n');
+        return out.toString();
+    }
+
+    static String describe(ScanStatistics statistics) {
+        StringBuilder out = new StringBuilder();
+        out.append("tokens=").append(statistics.getTotalTokens()).append(" lines=").append(statistics.getLines())
+           .append(" comments=").append(statistics.getCommentsRemoved());
+        for (TokenType type : TokenType.values()) out.append(' ').append(statistics.getTokenCount(type));
+        return out.toString();
+    }
+}
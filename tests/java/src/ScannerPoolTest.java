@@ -0,0 +1,90 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class ScannerPoolTest {
+    @Test
+    void releasedScannersAreReusedAndFullyReset() {
+        ScannerPool pool = new ScannerPool(2);
+        ManualScanner first = pool.acquire("count @ Abc");
+        List<ErrorHandler.ErrorRecord> seen = new ArrayList<>();
+        first.getErrorHandler().setListener(seen::add);
+        first.getErrorHandler().setLimit(1);
+        first.scan(TokenSink.NONE);
+        assertEquals(1, seen.size());
+        pool.release(first);
+        assertEquals(1, pool.idleCount());
+
+        ManualScanner second = pool.acquire("@ @ Def");
+        assertSame(first, second);
+        assertEquals(0, pool.idleCount());
+        second.scan(TokenSink.NONE);
+        // neither the previous user's errors and symbols nor its listener and limit carry over
+        assertEquals(1, seen.size());
+        assertEquals(2, second.getErrorHandler().getErrors().size());
+        assertEquals(1, second.getSymbolTable().size());
+        assertEquals("Def", second.getSymbolTable().getName(0));
+        assertEquals(ManualScannerResetTest.stateOf(scanned("@ @ Def")), ManualScannerResetTest.stateOf(second));
+    }
+
+    @Test
+    void keepsAtMostMaxIdle() {
+        ScannerPool pool = new ScannerPool(1);
+        ManualScanner a = pool.acquire("A");
+        ManualScanner b = pool.acquire("B");
+        assertNotSame(a, b);
+        pool.release(a);
+        pool.release(b);
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void releaseDropsTheInput() {
+        ScannerPool pool = new ScannerPool(1);
+        ManualScanner scanner = pool.acquire("Abc Def");
+        pool.release(scanner);
+        assertEquals(0, scanner.scanToBuffer().size());
+        assertEquals(0, scanner.getSymbolTable().size());
+    }
+
+    @Test
+    void concurrentUsersGetIndependentResults() throws Exception {
+        ScannerPool pool = new ScannerPool(4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 200; task++) {
+                String input = ManualScannerResetTest.INPUTS[task % ManualScannerResetTest.INPUTS.length] + "\nTask" + task;
+                String expected = ManualScannerResetTest.describe(ManualScanner.fromSource(input));
+                results.add(executor.submit(() -> {
+                    ManualScanner scanner = pool.acquire(input);
+                    try {
+                        return expected.equals(ManualScannerResetTest.describe(scanner));
+                    } finally {
+                        pool.release(scanner);
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) assertTrue(result.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(pool.idleCount() <= 4);
+    }
+
+    private static ManualScanner scanned(String input) {
+        ManualScanner scanner = ManualScanner.fromSource(input);
+        scanner.scan(TokenSink.NONE);
+        return scanner;
+    }
+}
@@ -0,0 +1,127 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+// Ids are dense in first-appearance order; a name found again from any slice of any source
+// gets its old id back.
+class SymbolTableTest {
+    private static int add(SymbolTable table, CharSequence source, int start, int length, int line) {
+        return table.addIdentifier(source, start, length, source.subSequence(start, start + length).toString().hashCode(), line);
+    }
+
+    @Test
+    void slicesAreMatchedInPlace() {
+        SymbolTable table = new SymbolTable();
+        String source = "Abc Def Abc Abcd";
+        assertEquals(0, add(table, source, 0, 3, 1));
+        assertEquals(1, add(table, source, 4, 3, 1));
+        assertEquals(0, add(table, source, 8, 3, 2));
+        assertEquals(2, add(table, source, 12, 4, 3));
+        assertEquals(0, table.addIdentifier("Abc", 9));
+        assertEquals(3, table.size());
+        assertEquals("Abc", table.getName(0));
+        assertEquals(1, table.getFirstLine(0));
+        assertEquals(3, table.getFrequency(0));
+        assertEquals(3, table.getFirstLine(2));
+        assertEquals("N/A", table.getType(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getName(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getFrequency(-1));
+    }
+
+    @Test
+    void equalHashesAreToldApart() {
+        // "Aa" and "BB" have the same String.hashCode()
+        SymbolTable table = new SymbolTable();
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(0, table.addIdentifier("Aa", 1));
+        assertEquals(1, table.addIdentifier("BB", 2));
+        assertEquals(0, table.addIdentifier("Aa", 3));
+        assertEquals(1, table.addIdentifier("BB", 4));
+        assertEquals(2, table.getFrequency(1));
+        assertEquals(2, table.getFirstLine(1));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        SymbolTable table = new SymbolTable(1);
+        for (int i = 0; i < 10000; i++) assertEquals(i, table.addIdentifier("Name" + i, i + 1));
+        for (int i = 0; i < 10000; i++) assertEquals(i, table.addIdentifier("Name" + i, 1));
+        assertEquals(10000, table.size());
+        assertEquals(5000, table.getFirstLine(4999));
+        assertEquals(2, table.getFrequency(9999));
+        assertTrue(table.loadFactor() <= 0.5);
+    }
+
+    @Test
+    void mergeShiftsLinesAndAddsFrequencies() {
+        SymbolTable first = new SymbolTable();
+        first.addIdentifier("Abc", 1);
+        first.addIdentifier("Def", 2);
+        SymbolTable second = new SymbolTable();
+        second.addIdentifier("Ghi", 1);
+        second.addIdentifier("Abc", 2);
+        second.addIdentifier("Abc", 3);
+        first.merge(second, 10);
+        assertEquals(3, first.size());
+        assertEquals("Ghi", first.getName(2));
+        assertEquals(11, first.getFirstLine(2));
+        assertEquals(1, first.getFirstLine(0));
+        assertEquals(3, first.getFrequency(0));
+    }
+
+    @Test
+    void identifierTokensShareOneInternedName() {
+        String text = "Count Total Count\n## Count\nTotal Count\n";
+        ManualScanner scanner = ManualScanner.fromBytes(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+        Token first = scanner.nextToken();
+        Token second = scanner.nextToken();
+        Token third = scanner.nextToken();
+        assertEquals(0, first.getSymbolId());
+        assertEquals(1, second.getSymbolId());
+        assertEquals(0, third.getSymbolId());
+        assertSame(first.getLexeme(), third.getLexeme());
+        assertSame(scanner.getSymbolTable().getName(0), first.getLexeme());
+        assertEquals(1, scanner.getSymbolTable().lookup("Total"));
+        assertEquals(-1, scanner.getSymbolTable().lookup("Other"));
+    }
+
+    // Every engine numbers names in first-appearance order; chunked scans renumber to match.
+    @Test
+    void idsAreDenseInFirstAppearanceOrder() throws IOException {
+        String text = ScanResults.randomSource(9, 3000);
+        ManualScanner manual = ManualScanner.fromBytes(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+        assertFirstAppearanceOrder(manual.scanToBuffer(), manual.getSymbolTable());
+        Yylex yylex = new Yylex(new StringReader(text));
+        assertFirstAppearanceOrder(yylex.scanInto(new TokenBuffer(text)), yylex.getSymbolTable());
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ParallelScanner parallel = new ParallelScanner(text, pool, 100);
+        assertFirstAppearanceOrder(parallel.scan(), parallel.getSymbolTable());
+        pool.shutdown();
+    }
+
+    private static void assertFirstAppearanceOrder(TokenBuffer tokens, SymbolTable symbols) {
+        int seen = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            int id = tokens.getSymbolId(i);
+            if (tokens.getType(i) != TokenType.IDENTIFIER) {
+                assertEquals(-1, id);
+                continue;
+            }
+            assertTrue(id <= seen, tokens.getLexeme(i));
+            if (id == seen) seen++;
+            assertEquals(tokens.getLexeme(i), symbols.getName(id));
+        }
+        assertEquals(symbols.size(), seen);
+        assertTrue(seen > 3);
+    }
+}
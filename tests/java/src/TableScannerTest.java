@@ -0,0 +1,68 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+// The table-driven DFA must accept exactly what ManualScanner accepts.
+class TableScannerTest {
+    private static final String[] EDGE_CASES = {
+        "", "A", "a", "1", "+", "-", "+1", "- 1", "1.", "1.5.", "1..2", "1.2.3.4", ".5", "1e", "1e+", "1.5e", "1.5e+",
+        "1.5e-3x", "1.5E10", "+1.2.3e5", "-12.34.56E-7x", "1.2.e3", "1.2.3.", "Abc1.2.3", "00012", "-0.0", "99999999999999999999", "-9223372036854775809",
+        "Abcdefghijabcdefghijabcdefghijab", "Abcdefghijabcdefghijabcdefghija", "AbcDef", "A_b", "trueX", "falsey", "True",
+        "##", "## x\r\ny", "#", "# #", "\r", "\r\r\n\n", "\t\t Abc", "@$!", "x\u00e9y \u00ff",
+    };
+
+    private static void assertSameAsManual(CharSequence text) {
+        ManualScanner manual = ManualScanner.fromSource(text);
+        TableScanner table = TableScanner.fromSource(text);
+        String where = text.toString().replace("\n", "\\n").replace("\r", "\\r");
+        assertEquals(ScanResults.describe(manual.scanToBuffer(), manual.getSymbolTable()),
+                     ScanResults.describe(table.scanToBuffer(), table.getSymbolTable()), where);
+        assertEquals(ScanResults.describe(manual.getSymbolTable()), ScanResults.describe(table.getSymbolTable()), where);
+        assertEquals(ScanResults.describe(manual.getErrorHandler()), ScanResults.describe(table.getErrorHandler()), where);
+        assertEquals(ScanResults.describe(manual.getStatistics()), ScanResults.describe(table.getStatistics()), where);
+        // names were filed under their String hash, so they can be looked up by name
+        SymbolTable symbols = table.getSymbolTable();
+        for (int id = 0; id < symbols.size(); id++) assertEquals(id, symbols.lookup(symbols.getName(id)), where);
+    }
+
+    @Test
+    void matchesManualScannerOnEdgeCases() {
+        for (String text : EDGE_CASES) {
+            assertSameAsManual(text);
+            assertSameAsManual(text + " Abc\n" + text);
+        }
+    }
+
+    @Test
+    void matchesManualScannerOnRandomText() {
+        for (long seed = 0; seed < 50; seed++) assertSameAsManual(ScanResults.randomSource(seed, 400));
+    }
+
+    @Test
+    void matchesManualScannerOnBytes() {
+        byte[] bytes = ScanResults.randomSource(7, 2000).getBytes(StandardCharsets.US_ASCII);
+        ManualScanner manual = ManualScanner.fromBytes(ByteBuffer.wrap(bytes));
+        TableScanner table = TableScanner.fromBytes(ByteBuffer.wrap(bytes));
+        assertEquals(ScanResults.describe(manual.scanToBuffer(), manual.getSymbolTable()),
+                     ScanResults.describe(table.scanToBuffer(), table.getSymbolTable()));
+    }
+
+    @Test
+    void pullApiGivesTheSameTokens() {
+        String text = ScanResults.randomSource(5, 500);
+        ManualScanner manual = ManualScanner.fromSource(text);
+        TableScanner table = TableScanner.fromSource(text);
+        Token expected;
+        do {
+            expected = manual.nextToken();
+            Token actual = table.nextToken();
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getOffset(), actual.getOffset());
+            assertEquals(expected.getSymbolId(), actual.getSymbolId());
+        } while (expected.getType() != TokenType.EOF);
+    }
+}
@@ -0,0 +1,85 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// A packed buffer must hold exactly the tokens the pull API returns, one by one.
+class TokenBufferTest {
+    // clean input (no errors), so both engines agree on it
+    private static final String LINE = "Count + 10 * Val1 / 3.14 ; ## note\nTotal : -5 , true ( X ) [ Y ] { Z }\r\n";
+
+    private static ManualScanner scanner(String text) {
+        return ManualScanner.fromBytes(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static List<String> pulled(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (Token token : scanner(text)) tokens.add(token.toString());
+        return tokens;
+    }
+
+    private static List<String> buffered(TokenBuffer buffer) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < buffer.size(); i++) tokens.add(buffer.toToken(i).toString());
+        return tokens;
+    }
+
+    @Test
+    void bufferHoldsThePulledTokens() {
+        String text = LINE.repeat(500);
+        TokenBuffer buffer = scanner(text).scanToBuffer();
+        assertEquals(11000, buffer.size());
+        assertEquals(pulled(text), buffered(buffer));
+        assertEquals("Val1", buffer.getLexeme(4));
+        assertEquals(TokenType.FLOAT_LITERAL, buffer.getType(6));
+        assertEquals(LINE.indexOf("3.14"), buffer.getStart(6));
+        assertEquals(4, buffer.getLength(6));
+        assertEquals(2, buffer.getLine(8));
+        assertEquals(1, buffer.getColumn(8));
+    }
+
+    @Test
+    void yylexFillsTheSameBuffer() throws IOException {
+        String text = LINE.repeat(50);
+        TokenBuffer yylex = new Yylex(new StringReader(text)).scanInto(new TokenBuffer(text, 1));
+        assertEquals(buffered(scanner(text).scanToBuffer()), buffered(yylex));
+    }
+
+    @Test
+    void cursorWalksTheBuffer() {
+        TokenBuffer buffer = scanner(LINE).scanToBuffer();
+        TokenBuffer.Cursor cursor = buffer.cursor();
+        List<String> walked = new ArrayList<>();
+        while (cursor.next()) walked.add(cursor.toString());
+        assertEquals(buffered(buffer), walked);
+        assertFalse(cursor.next());
+        assertEquals("Total", cursor.moveTo(8).getLexeme());
+        assertTrue(cursor.next());
+        assertEquals(":", cursor.getLexeme());
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.moveTo(buffer.size()));
+    }
+
+    @Test
+    void addAndClear() {
+        TokenBuffer buffer = new TokenBuffer("Abc + 1", 1);
+        buffer.add(TokenType.IDENTIFIER, 0, 3, 1, 1);
+        buffer.add(TokenType.ARITHMETIC_OP, 4, 1, 1, 5);
+        buffer.add(TokenType.INTEGER_LITERAL, 6, 1, 1, 7);
+        assertEquals(3, buffer.size());
+        assertEquals("<ARITHMETIC_OP, \"+\", Line: 1, Col: 5>", buffer.toToken(1).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getType(3));
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getLexeme(0));
+    }
+}
@@ -0,0 +1,261 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Hits must give exactly what scanning the file gives; the cache must stay within its size.
+class TokenCacheTest {
+    @TempDir
+    Path directory;
+
+    private Path file(String name, String text) throws IOException {
+        return Files.writeString(directory.resolve(name), text);
+    }
+
+    private Path cacheDirectory() {
+        return directory.resolve("cache");
+    }
+
+    private static void assertSameAsScan(Path file, TokenCache.Entry entry) throws IOException {
+        assertSameAsScan(file, Lexers.Engine.MANUAL, entry);
+    }
+
+    // What the uncached path (Lexers.fromPath) gives for the file.
+    private static void assertSameAsScan(Path file, Lexers.Engine engine, TokenCache.Entry entry) throws IOException {
+        assertSameAsScan(new String(Files.readAllBytes(file)), Lexers.fromPath(engine, file), entry);
+    }
+
+    private static void assertSameAsScan(String text, Lexer lexer, TokenCache.Entry entry) {
+        assertEquals(ScanResults.describe(lexer.scan(new TokenBuffer(text)), lexer.getSymbolTable()),
+                     ScanResults.describe(entry.getTokens(), entry.getSymbolTable()));
+        assertEquals(ScanResults.describe(lexer.getSymbolTable()), ScanResults.describe(entry.getSymbolTable()));
+        assertEquals(ScanResults.describe(lexer.getErrorHandler()), ScanResults.describe(entry.getErrorHandler()));
+        assertEquals(ScanResults.describe(lexer.getStatistics()), ScanResults.describe(entry.getStatistics()));
+    }
+
+    @Test
+    void missThenHit() throws IOException {
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        Path file = file("a.lang", ScanResults.randomSource(1, 500));
+        TokenCache.Entry miss = cache.get(file);
+        assertFalse(miss.isHit());
+        assertSameAsScan(file, miss);
+        TokenCache.Entry hit = cache.get(file);
+        assertTrue(hit.isHit());
+        assertSameAsScan(file, hit);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    void keyedByContents() throws IOException {
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        Path file = file("a.lang", "Abc = 1");
+        cache.get(file);
+        assertTrue(cache.get(file("copy.lang", "Abc = 1")).isHit());
+        TokenCache.Entry changed = cache.get(file("a.lang", "Abc = 2"));
+        assertFalse(changed.isHit());
+        assertSameAsScan(file, changed);
+    }
+
+    @Test
+    void entriesSurviveARestart() throws IOException {
+        Path file = file("a.lang", ScanResults.randomSource(2, 500));
+        new TokenCache(cacheDirectory(), 1 << 20).get(file);
+        TokenCache reopened = new TokenCache(cacheDirectory(), 1 << 20);
+        assertEquals(1, reopened.getEntryCount());
+        TokenCache.Entry hit = reopened.get(file);
+        assertTrue(hit.isHit());
+        assertSameAsScan(file, hit);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        Path a = file("a.lang", ScanResults.randomSource(3, 200));
+        Path b = file("b.lang", ScanResults.randomSource(4, 200));
+        Path c = file("c.lang", ScanResults.randomSource(5, 200));
+        TokenCache probe = new TokenCache(directory.resolve("probe"), Long.MAX_VALUE);
+        probe.get(a);
+        probe.get(b);
+        probe.get(c);
+        // room for any two of the three entries
+        long limit = probe.getTotalBytes() - 1;
+
+        TokenCache cache = new TokenCache(cacheDirectory(), limit);
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);     // b is now the least recently used
+        cache.get(c);
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getTotalBytes() <= limit);
+        try (Stream<Path> entries = Files.list(cacheDirectory())) {
+            assertEquals(2, entries.count());
+        }
+        assertTrue(cache.get(a).isHit());
+        assertTrue(cache.get(c).isHit());
+        assertFalse(cache.get(b).isHit());
+    }
+
+    @Test
+    void damagedEntryIsAMiss() throws IOException {
+        Path file = file("a.lang", ScanResults.randomSource(6, 300));
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        cache.get(file);
+        try (Stream<Path> entries = Files.list(cacheDirectory())) {
+            Path entry = entries.findFirst().orElseThrow();
+            Files.write(entry, new byte[] { 1, 2, 3 });
+        }
+        TokenCache.Entry rescanned = cache.get(file);
+        assertFalse(rescanned.isHit());
+        assertSameAsScan(file, rescanned);
+        assertTrue(cache.get(file).isHit());
+    }
+
+    @Test
+    void loadedTokensCanBeQueriedAndChanged() throws IOException {
+        Path file = file("a.lang", "Abc + 1.5 ;\nDef * 2");
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        cache.get(file);
+        TokenBuffer tokens = cache.get(file).getTokens();
+        assertEquals(1, tokens.indexAt(4));
+        assertEquals(1.5, tokens.getFloatValue(2));
+        assertEquals("Def", tokens.toToken(4).getLexeme());
+        assertEquals(2, tokens.getLine(4));
+
+        // each change first copies the mapped columns
+        tokens.add(TokenType.PUNCTUATOR, 0, 1, 9, 9);
+        assertEquals(8, tokens.size());
+        assertEquals(TokenType.PUNCTUATOR, tokens.getType(7));
+        assertEquals(2, tokens.getIntegerValue(6));
+        TokenBuffer copy = new TokenBuffer(tokens.getSource());
+        copy.append(cache.get(file).getTokens(), 0, new int[] { 0, 1 });
+        assertEquals(7, copy.size());
+        assertEquals("Def", copy.getLexeme(4));
+        TokenBuffer cleared = cache.get(file).getTokens();
+        cleared.clear();
+        assertEquals(0, cleared.size());
+    }
+
+    @Test
+    void nonAsciiFilesMatchTheUncachedScanForEveryEngine() throws IOException {
+        // the accented letters are two bytes each in UTF-8; positions after them count chars
+        Path file = directory.resolve("accents.lang");
+        byte[] bytes = "Caf\u00e9 = 1 ## d\u00e9j\u00e0 vu\nNa\u00efve + 2.5 \u00c9t\u00e9\nAbc 1.2.3".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+        String utf8Text = new String(bytes, StandardCharsets.UTF_8);
+        TokenCache platform = new TokenCache(cacheDirectory(), 1 << 20);
+        TokenCache utf8 = new TokenCache(directory.resolve("utf8"), 1 << 20, StandardCharsets.UTF_8);
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            for (int pass = 0; pass < 2; pass++) {
+                TokenCache.Entry entry = platform.get(file, engine);
+                assertEquals(pass == 1, entry.isHit(), engine.toString());
+                assertSameAsScan(file, engine, entry);
+                entry = utf8.get(file, engine);
+                assertEquals(pass == 1, entry.isHit(), engine.toString());
+                assertSameAsScan(utf8Text, Lexers.fromSource(engine, utf8Text), entry);
+            }
+        }
+        // one entry per engine
+        assertEquals(Lexers.Engine.values().length, platform.getEntryCount());
+    }
+
+    @Test
+    void charsetIsPartOfTheKey() throws IOException {
+        byte[] bytes = "Abc \u00e9 Def".getBytes(StandardCharsets.UTF_8);
+        Path file = directory.resolve("a.lang");
+        Files.write(file, bytes);
+        TokenCache utf8 = new TokenCache(cacheDirectory(), 1 << 20, StandardCharsets.UTF_8);
+        TokenCache latin1 = new TokenCache(cacheDirectory(), 1 << 20, StandardCharsets.ISO_8859_1);
+        assertEquals(1, utf8.get(file).getErrorHandler().getErrorCount());
+        TokenCache.Entry asLatin1 = latin1.get(file);
+        assertFalse(asLatin1.isHit());
+        assertEquals(2, asLatin1.getErrorHandler().getErrorCount());
+        assertEquals(1, utf8.get(file).getErrorHandler().getErrorCount());
+        assertEquals(7, utf8.get(file).getTokens().getColumn(1));
+        assertEquals(8, latin1.get(file).getTokens().getColumn(1));
+    }
+
+    private Path onlyEntry() throws IOException {
+        try (Stream<Path> entries = Files.list(cacheDirectory())) {
+            return entries.findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void truncatedEntriesAreMisses() throws IOException {
+        Path file = file("a.lang", ScanResults.randomSource(7, 300));
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        cache.get(file);
+        byte[] whole = Files.readAllBytes(onlyEntry());
+        for (int length : new int[] { 0, 3, 4, 12, 40, whole.length / 2, whole.length - 8, whole.length - 1 }) {
+            Files.write(onlyEntry(), Arrays.copyOf(whole, length));
+            TokenCache.Entry rescanned = cache.get(file);
+            assertFalse(rescanned.isHit(), "cut to " + length);
+            assertSameAsScan(file, rescanned);
+            // the miss wrote the entry again
+            assertTrue(cache.get(file).isHit(), "cut to " + length);
+        }
+    }
+
+    @Test
+    void entryForOtherContentsIsAMiss() throws IOException {
+        Path file = file("a.lang", "Abc + 1");
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        cache.get(file);
+        // a well-formed entry, but for text of another length, left under this file's key
+        Path entry = onlyEntry();
+        Path other = file("b.lang", "Abc + 1 + Def");
+        cache.get(other);
+        Path otherEntry;
+        try (Stream<Path> entries = Files.list(cacheDirectory())) {
+            otherEntry = entries.filter(p -> !p.equals(entry)).findFirst().orElseThrow();
+        }
+        Files.copy(otherEntry, entry, StandardCopyOption.REPLACE_EXISTING);
+        TokenCache.Entry rescanned = cache.get(file);
+        assertFalse(rescanned.isHit());
+        assertSameAsScan(file, rescanned);
+    }
+
+    @Test
+    void damagedCountsAreMisses() throws IOException {
+        Path file = file("a.lang", "Abc + 1 @ Def\nAbc");
+        TokenCache cache = new TokenCache(cacheDirectory(), 1 << 20);
+        int tokenCount = cache.get(file).getTokens().size();
+        byte[] whole = Files.readAllBytes(onlyEntry());
+        // where the entry keeps the symbol count, the first name's length and the token count
+        int symbols = (5 + TokenType.values().length) * Integer.BYTES;
+        int firstName = symbols + Integer.BYTES;
+        int tokens = whole.length - tokenCount * (6 * Integer.BYTES + Long.BYTES) - Integer.BYTES;
+        assertEquals(2, ByteBuffer.wrap(whole).getInt(symbols));
+        assertEquals(3, ByteBuffer.wrap(whole).getInt(firstName));
+        assertEquals(tokenCount, ByteBuffer.wrap(whole).getInt(tokens));
+
+        // counts that ask for huge or negative allocations, or whose column sizes overflow
+        int[][] damage = {
+            { symbols, Integer.MAX_VALUE }, { symbols, -1 }, { firstName, Integer.MAX_VALUE }, { firstName, -3 },
+            { tokens, Integer.MAX_VALUE }, { tokens, 0x0AAAAAAB }, { tokens, -1 }, { tokens, tokenCount + 1 },
+            { tokens, tokenCount - 1 },
+        };
+        for (int[] change : damage) {
+            Files.write(onlyEntry(), ByteBuffer.wrap(whole.clone()).putInt(change[0], change[1]).array());
+            TokenCache.Entry rescanned = cache.get(file);
+            String where = change[1] + " at " + change[0];
+            assertFalse(rescanned.isHit(), where);
+            assertSameAsScan(file, rescanned);
+            assertTrue(cache.get(file).isHit(), where);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Offset queries must agree with walking every token.
+class TokenQueryTest {
+    static final String SOURCE = "Count = 10 + Val1 * 3.14 ;\n## comment\n  Total : -5 , true @ Xyz\r\n(Abc)[1.5e3]";
+
+    private static int linearIndexAt(TokenBuffer tokens, int offset) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getStart(i) <= offset && offset < tokens.getStart(i) + tokens.getLength(i)) return i;
+        }
+        return -1;
+    }
+
+    private static List<Integer> linearRange(TokenBuffer tokens, int from, int to) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (from < to && tokens.getStart(i) < to && from < tokens.getStart(i) + tokens.getLength(i)) indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static List<Integer> range(TokenBuffer tokens, int from, int to) {
+        List<Integer> indexes = new ArrayList<>();
+        TokenBuffer.Cursor cursor = tokens.cursor(from, to);
+        while (cursor.next()) indexes.add(cursor.index());
+        return indexes;
+    }
+
+    private static void assertQueriesMatch(TokenBuffer tokens, int length) {
+        for (int offset = -1; offset <= length + 1; offset++) {
+            assertEquals(linearIndexAt(tokens, offset), tokens.indexAt(offset), "offset " + offset);
+            for (int to = offset; to <= length + 1; to++) {
+                assertEquals(linearRange(tokens, offset, to), range(tokens, offset, to), "range " + offset + ".." + to);
+            }
+        }
+    }
+
+    @Test
+    void pointAndRangeQueriesMatchALinearWalk() {
+        assertQueriesMatch(ManualScanner.fromSource(SOURCE).scanToBuffer(), SOURCE.length());
+        assertQueriesMatch(new TokenBuffer(""), 0);
+    }
+
+    @Test
+    void queriesFollowIncrementalEdits() {
+        IncrementalLexer lexer = new IncrementalLexer(SOURCE);
+        Random random = new Random(25);
+        for (int round = 0; round < 40; round++) {
+            String text = lexer.getText();
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(6, text.length() - offset) + 1);
+            String[] inserts = { "", "Abc ", "\n", "## x\n", "1.5", " + ", "@" };
+            lexer.edit(offset, removed, inserts[random.nextInt(inserts.length)]);
+            assertQueriesMatch(lexer.getTokens(), lexer.getText().length());
+        }
+    }
+
+    @Test
+    void tokensCarryTheirOffsetInEveryEngine() {
+        TokenBuffer expected = ManualScanner.fromSource(SOURCE).scanToBuffer();
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            List<Token> tokens = Lexers.fromSource(engine, SOURCE).scanTokens();
+            assertEquals(expected.size(), tokens.size(), engine.toString());
+            for (int i = 0; i < tokens.size(); i++) {
+                assertEquals(expected.getStart(i), tokens.get(i).getOffset(), engine + " token " + i);
+                assertEquals(i, expected.indexAt(tokens.get(i).getOffset()));
+            }
+        }
+        assertEquals(SOURCE.indexOf("Val1"), expected.toToken(expected.indexAt(SOURCE.indexOf("al1"))).getOffset());
+    }
+}
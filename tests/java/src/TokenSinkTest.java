@@ -0,0 +1,74 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Every sink must see the tokens the pull API returns, and a quiet scan must count the same.
+class TokenSinkTest {
+    private static final String INPUT = ("Count = 10 + Val1 * 3.14 ;\r\n## comment\nTotal : -5 , true @\n\nLast").repeat(300);
+
+    private static ManualScanner scanner() {
+        return ManualScanner.fromBytes(ByteBuffer.wrap(INPUT.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static List<Token> pulled() {
+        List<Token> tokens = new ArrayList<>();
+        for (Token token : scanner()) tokens.add(token);
+        return tokens;
+    }
+
+    @Test
+    void textSinkPrintsEachToken() {
+        StringBuilder expected = new StringBuilder();
+        for (Token token : pulled()) expected.append(token).append(System.lineSeparator());
+        StringWriter out = new StringWriter();
+        scanner().scan(new TextTokenSink(out));
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    void binarySinkWritesFixedRecords() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        scanner().scan(new BinaryTokenSink(out));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        for (Token token : pulled()) {
+            assertEquals(token.getType().ordinal(), in.readByte());
+            int offset = in.readInt();
+            assertEquals(token.getLine(), in.readInt());
+            in.readInt();
+            byte[] lexeme = new byte[in.readInt()];
+            in.readFully(lexeme);
+            assertEquals(token.getLexeme(), new String(lexeme, StandardCharsets.US_ASCII));
+            assertEquals(token.getLexeme(), INPUT.substring(offset, offset + lexeme.length));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void quietScanCountsTheSame() {
+        ManualScanner pulling = scanner();
+        while (pulling.nextToken().getType() != TokenType.EOF) { }
+        ManualScanner quiet = scanner();
+        quiet.scan(TokenSink.NONE);
+        assertEquals(describe(pulling.getStatistics()), describe(quiet.getStatistics()));
+        assertEquals(pulling.getErrorHandler().getErrors().toString(), quiet.getErrorHandler().getErrors().toString());
+        assertEquals(3900, quiet.getStatistics().getTotalTokens());
+        assertEquals(300, quiet.getStatistics().getCommentsRemoved());
+    }
+
+    private static String describe(ScanStatistics statistics) {
+        StringBuilder out = new StringBuilder().append(statistics.getTotalTokens()).append(' ').append(statistics.getLines());
+        for (TokenType type : TokenType.values()) out.append(' ').append(statistics.getTokenCount(type));
+        return out.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Operators, punctuators and booleans share one lexeme String per spelling.
+class TokenTest {
+    private static final String TEXT = "A + B - 1 * 2 / 3 % 4 ( ) { } [ ] , ; : true false\n"
+            + "Ccc+Ddd;true:false\n";
+
+    @Test
+    void fixedLexemesAreSharedAcrossTokensScansAndEngines() {
+        Map<String, String> shared = new HashMap<>();
+        for (Lexers.Engine engine : Lexers.Engine.values()) {
+            for (int scan = 0; scan < 2; scan++) {
+                List<Token> tokens = Lexers.fromSource(engine, new StringBuilder(TEXT)).scanTokens();
+                int fixed = 0;
+                for (Token token : tokens) {
+                    String lexeme = token.getLexeme();
+                    switch (token.getType()) {
+                        case ARITHMETIC_OP:
+                        case PUNCTUATOR:
+                        case BOOLEAN_LITERAL:
+                            assertSame(shared.computeIfAbsent(lexeme, l -> lexeme), lexeme, engine + " " + token);
+                            fixed++;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                assertEquals(21, fixed, engine.toString());
+            }
+        }
+        assertEquals(16, shared.size());
+    }
+
+    @Test
+    void fixedLexemeMatchesTheText() {
+        String text = "x+-*/%(){}[],;:truefalse";
+        for (int i = 1; i <= 14; i++) {
+            TokenType type = i <= 5 ? TokenType.ARITHMETIC_OP : TokenType.PUNCTUATOR;
+            assertEquals(text.substring(i, i + 1), Token.fixedLexeme(type, text, i, 1));
+        }
+        assertSame(Token.fixedLexeme(TokenType.BOOLEAN_LITERAL, text, 15, 4), Token.fixedLexeme(TokenType.BOOLEAN_LITERAL, "true", 0, 4));
+        assertEquals("false", Token.fixedLexeme(TokenType.BOOLEAN_LITERAL, text, 19, 5));
+        assertNull(Token.fixedLexeme(TokenType.IDENTIFIER, "Abc", 0, 3));
+        assertNull(Token.fixedLexeme(TokenType.INTEGER_LITERAL, "12", 0, 2));
+    }
+}
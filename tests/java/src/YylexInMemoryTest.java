@@ -0,0 +1,71 @@
+package src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Yylex over in-memory text, and through small scan buffers, scans what the Reader path scans.
+class YylexInMemoryTest {
+    private static List<String> texts() {
+        List<String> texts = new ArrayList<>();
+        for (long seed = 0; seed < 30; seed++) texts.add(ScanResults.randomSource(seed, 200));
+        // empty input, and inputs that are, or end with, a single token
+        texts.add("");
+        texts.add("Abc");
+        texts.add("12345");
+        texts.add("## a comment to the end");
+        texts.add("X + 1.25");
+        texts.add("Abcdefghijklmnopqrstuvwxyzabcdefgh");
+        return texts;
+    }
+
+    private static String describe(String text, Lexer lexer) {
+        String tokens = ScanResults.describe(lexer.scan(new TokenBuffer(text)), lexer.getSymbolTable());
+        return tokens + ScanResults.describe(lexer.getErrorHandler()) + ScanResults.describe(lexer.getStatistics());
+    }
+
+    private static String pulled(Lexer lexer) {
+        return lexer.scanTokens() + ScanResults.describe(lexer.getErrorHandler());
+    }
+
+    @Test
+    void inMemoryScansMatchTheReaderPath() {
+        for (String text : texts()) {
+            String expected = describe(text, new Yylex(new StringReader(text)));
+            assertEquals(expected, describe(text, Yylex.over(text)), text);
+            assertEquals(expected, describe(text, Yylex.over(new StringBuilder(text))), text);
+            assertEquals(expected, describe(text, Yylex.over(text.toCharArray(), text.length())), text);
+            char[] padded = (text + "@@@@").toCharArray();
+            assertEquals(expected, describe(text, Yylex.over(padded, text.length())), text);
+            assertEquals(expected, describe(text, Lexers.fromSource(Lexers.Engine.JFLEX, text)), text);
+
+            String expectedPulled = pulled(new Yylex(new StringReader(text)));
+            assertEquals(expectedPulled, pulled(Yylex.over(text)), text);
+            assertEquals(expectedPulled, pulled(Yylex.over(text.toCharArray(), text.length())), text);
+        }
+    }
+
+    @Test
+    void smallScanBuffersMatchTheDefault() throws IOException {
+        for (String text : texts()) {
+            String expected = describe(text, new Yylex(new StringReader(text)));
+            for (int size : new int[] { 1, 2, 3, 4, 16 }) {
+                assertEquals(expected, describe(text, new Yylex(new StringReader(text), size)), text + " size " + size);
+                assertEquals(expected, describe(text, Lexers.fromReader(Lexers.Engine.JFLEX, new StringReader(text), size)),
+                        text + " size " + size);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new Yylex(new StringReader("A"), 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> Yylex.over(new char[2], 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> Yylex.over(new char[2], -1));
+    }
+}